@@ -0,0 +1,53 @@
+package com.rklymus.ittask;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class Benchmarks {
+
+    static final String[] UNINSTRUMENTED = {
+            "spring.aop.auto=false",
+            "management.metrics.enable.all=false",
+            "spring.jpa.properties.hibernate.generate_statistics=false"
+    };
+
+    private Benchmarks() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        return new SpringApplicationBuilder(ItTaskApplication.class)
+                .web(type)
+                .properties("server.port=0", "logging.level.root=warn", "post.search.rebuild-on-startup=false")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static List<Integer> seed(PostService service, int count) {
+        List<PostRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(request("Title " + i, "Content " + i));
+        }
+        return service.createAll(requests).getIds();
+    }
+
+    static PostRequest request(String title, String content) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        return request;
+    }
+
+    static Post post() {
+        Post post = new Post();
+        post.setId(42);
+        post.setTitle("Pikachu");
+        post.setContent("Lives in Viridian Forest and likes ketchup");
+        post.setTimestamp(LocalDateTime.of(2023, 5, 14, 12, 30, 15, 123_456_000));
+        return post;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rklymus.ittask;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads posts of a given content size stored raw or deflated, and pages them as entities (the old listing path,
+ * which pulls content) or as summaries. The bytes stored per post are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostContentBenchmark {
+
+    private static final int POSTS = 2_000;
+    private static final LocalDateTime MIN = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Param({"200", "8000"})
+    private int contentSize;
+
+    @Param({"true", "false"})
+    private boolean compressed;
+
+    private ConfigurableApplicationContext context;
+    private PostService service;
+    private PostRepo postRepo;
+    private CacheManager cacheManager;
+    private List<Integer> ids;
+
+    @Setup
+    public void setup() {
+        context = Benchmarks.start(WebApplicationType.NONE,
+                "post.content.compression-threshold=" + (compressed ? 1024 : Integer.MAX_VALUE));
+        service = context.getBean(PostService.class);
+        postRepo = context.getBean(PostRepo.class);
+        cacheManager = context.getBean(CacheManager.class);
+        String paragraph = "Ash and Pikachu leave Pallet Town for Viridian Forest, where a wild Caterpie appears. ";
+        List<PostRequest> requests = new ArrayList<>(POSTS);
+        for (int i = 0; i < POSTS; i++) {
+            String content = (i + " " + paragraph).repeat(contentSize / paragraph.length() + 1);
+            requests.add(Benchmarks.request("Title " + i, content.substring(0, contentSize)));
+        }
+        ids = service.createAll(requests).getIds();
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        Number stored = (Number) entityManager.createNativeQuery("select sum(octet_length(content)) from post")
+                .getSingleResult();
+        System.out.printf("%ncontentSize=%d compressed=%b: %d bytes stored per post%n",
+                contentSize, compressed, stored.longValue() / POSTS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Post getUncached() {
+        Integer id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        cacheManager.getCache(PostService.CACHE).evict(id);
+        return service.get(id);
+    }
+
+    @Benchmark
+    public List<Post> pageEntities() {
+        return postRepo.findPageAfter(MIN, Integer.MIN_VALUE, MAX, PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public List<PostSummary> pageSummaries() {
+        return postRepo.findSummaryPageAfter(MIN, Integer.MIN_VALUE, MAX, PageRequest.of(0, 100));
+    }
+}
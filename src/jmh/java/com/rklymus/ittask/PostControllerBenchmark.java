@@ -0,0 +1,95 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostControllerBenchmark {
+
+    /**
+     * Off disables the timing aspect, meter recording and Hibernate statistics, to measure instrumentation overhead.
+     */
+    @Param({"on", "off"})
+    public String metrics;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private List<Integer> ids;
+    private byte[] requestJson;
+
+    @Setup
+    public void setup() throws Exception {
+        context = metrics.equals("on")
+                ? Benchmarks.start(WebApplicationType.SERVLET)
+                : Benchmarks.start(WebApplicationType.SERVLET, Benchmarks.UNINSTRUMENTED);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        ids = Benchmarks.seed(context.getBean(PostService.class), 10_000);
+        requestJson = new ObjectMapper().writeValueAsBytes(Benchmarks.request("Pikachu", "Lives in Viridian Forest"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult get(Wire wire) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/post/" + randomId()))
+                .andReturn();
+        wire.responseBytes += result.getResponse().getContentAsByteArray().length;
+        return result;
+    }
+
+    @Benchmark
+    public MvcResult getNotModified(Wire wire) throws Exception {
+        Integer id = randomId();
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/post/" + id)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + id + "-0\""))
+                .andReturn();
+        wire.responseBytes += result.getResponse().getContentAsByteArray().length;
+        return result;
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        return mockMvc.perform(post("/post").contentType(MediaType.APPLICATION_JSON).content(requestJson))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult update() throws Exception {
+        return mockMvc.perform(put("/post/" + randomId()).contentType(MediaType.APPLICATION_JSON).content(requestJson))
+                .andReturn();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long responseBytes;
+    }
+
+    private Integer randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostJsonBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"true", "false"})
+    public boolean blackbird;
+
+    private ObjectWriter postWriter;
+    private ObjectReader postReader;
+    private ObjectReader requestReader;
+    private byte[] postBytes;
+    private byte[] requestBytes;
+    private final Post post = Benchmarks.post();
+
+    @Setup
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        } else if (format.equals("smile")) {
+            builder.factory(new SmileFactory());
+        }
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        postWriter = objectMapper.writerFor(Post.class);
+        postReader = objectMapper.readerFor(Post.class);
+        requestReader = objectMapper.readerFor(PostRequest.class);
+        postBytes = postWriter.writeValueAsBytes(post);
+        requestBytes = objectMapper.writeValueAsBytes(Benchmarks.request("Pikachu", "Lives in Viridian Forest"));
+        System.out.printf("%n%s: post %d bytes, request %d bytes%n", format, postBytes.length, requestBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializePost() throws IOException {
+        return postWriter.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public Post deserializePost() throws IOException {
+        return postReader.readValue(postBytes);
+    }
+
+    @Benchmark
+    public PostRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestBytes);
+    }
+}
@@ -0,0 +1,28 @@
+package com.rklymus.ittask;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostMappingBenchmark {
+
+    private final PostRequest request = Benchmarks.request("Pikachu", "Lives in Viridian Forest");
+    private final Post post = Benchmarks.post();
+
+    @Benchmark
+    public Post toEntity() {
+        return request.toEntity();
+    }
+
+    @Benchmark
+    public Post updateWith() {
+        post.updateWith(request);
+        return post;
+    }
+}
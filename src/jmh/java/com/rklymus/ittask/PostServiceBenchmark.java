@@ -0,0 +1,69 @@
+package com.rklymus.ittask;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PostService service;
+    private CacheManager cacheManager;
+    private List<Integer> ids;
+    private final PostRequest request = Benchmarks.request("Pikachu", "Lives in Viridian Forest");
+
+    @Setup
+    public void setup() {
+        context = Benchmarks.start(WebApplicationType.NONE);
+        service = context.getBean(PostService.class);
+        cacheManager = context.getBean(CacheManager.class);
+        ids = Benchmarks.seed(service, 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Post getCached() {
+        return service.get(randomId());
+    }
+
+    @Benchmark
+    public Post getUncached() {
+        Integer id = randomId();
+        cacheManager.getCache(PostService.CACHE).evict(id);
+        return service.get(id);
+    }
+
+    @Benchmark
+    public Post create() {
+        return service.create(request);
+    }
+
+    @Benchmark
+    public Post update() {
+        return service.update(randomId(), request, null);
+    }
+
+    @Benchmark
+    public void createAndDelete() {
+        service.delete(service.create(request).getId());
+    }
+
+    private Integer randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
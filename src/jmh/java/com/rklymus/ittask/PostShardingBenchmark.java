@@ -0,0 +1,67 @@
+package com.rklymus.ittask;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of uncached reads and of writes with 1 vs N in-memory H2 shards, from several threads at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PostShardingBenchmark {
+
+    @Param({"1", "4"})
+    public int shards;
+
+    private ConfigurableApplicationContext context;
+    private PostService service;
+    private CacheManager cacheManager;
+    private List<Integer> ids;
+    private final PostRequest request = Benchmarks.request("Pikachu", "Lives in Viridian Forest");
+
+    @Setup
+    public void setup() {
+        List<String> properties = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            properties.add("post.sharding.shards[" + i + "].url=jdbc:h2:mem:shard-bench-" + i);
+        }
+        context = Benchmarks.start(WebApplicationType.NONE, properties.toArray(String[]::new));
+        service = context.getBean(PostService.class);
+        cacheManager = context.getBean(CacheManager.class);
+        ids = Benchmarks.seed(service, 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Post getUncached() {
+        Integer id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        cacheManager.getCache(PostService.CACHE).evict(id);
+        return service.get(id);
+    }
+
+    @Benchmark
+    public Post create() {
+        return service.create(request);
+    }
+
+    @Benchmark
+    public Post update() {
+        return service.update(ids.get(ThreadLocalRandom.current().nextInt(ids.size())), request, null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.rklymus.ittask;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve the hot set once after a restart, with and without a snapshot from the previous run. Every
+ * iteration restarts the application against the same database; its startup is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PostSnapshotBenchmark {
+
+    private static final int POSTS = 20_000;
+    private static final int HOT = 2_000;
+    private static final Path SNAPSHOT = Path.of("target/post-snapshot-benchmark.bin");
+
+    @Param({"true", "false"})
+    private boolean snapshot;
+
+    private ConfigurableApplicationContext context;
+    private PostService service;
+    private List<Integer> hot;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        Files.deleteIfExists(SNAPSHOT);
+        ConfigurableApplicationContext seeding = start(snapshot);
+        PostService seeder = seeding.getBean(PostService.class);
+        hot = Benchmarks.seed(seeder, POSTS).subList(0, HOT);
+        hot.forEach(seeder::get);
+        seeding.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void restart() {
+        context = start(snapshot);
+        service = context.getBean(PostService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readHotSet() {
+        int found = 0;
+        for (Integer id : hot) {
+            found += service.get(id) != null ? 1 : 0;
+        }
+        return found;
+    }
+
+    private static ConfigurableApplicationContext start(boolean snapshot) {
+        return Benchmarks.start(WebApplicationType.NONE,
+                "spring.datasource.url=jdbc:h2:mem:snapshot-benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=update",
+                "post.snapshot.enabled=" + snapshot,
+                "post.snapshot.path=" + SNAPSHOT);
+    }
+}
@@ -0,0 +1,458 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are issued on a fixed schedule regardless of how fast responses come back,
+ * and latency is measured from the scheduled start so queueing delay is not hidden (no coordinated omission).
+ */
+public class LoadHarness {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SEED_CHUNK = 1000;
+    private static final int SEED_CONCURRENCY = 64;
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LoadScenario scenario;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final IdPool ids = new IdPool();
+    private final Set<Outstanding> outstanding = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong peakLiveHeap = new AtomicLong();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private long baselineLiveHeap;
+    private int baselineThreads;
+    private URI baseUri;
+
+    public LoadHarness(LoadScenario scenario, ObjectMapper objectMapper) {
+        this.scenario = scenario;
+        this.objectMapper = objectMapper;
+        scenario.mix().forEach((operation, weight) -> endpoints.put(operation, new Endpoint(Operation.of(operation), weight)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path reports = Path.of(args[0]);
+        Files.createDirectories(reports);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        for (String file : args[1].split(",")) {
+            LoadScenario scenario = objectMapper.readValue(Path.of(file.trim()).toFile(), LoadScenario.class);
+            new LoadHarness(scenario, objectMapper).run(reports);
+        }
+    }
+
+    public void run(Path reports) throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/post");
+            PostService service = context.getBeanProvider(PostService.class).getIfAvailable();
+            if (service != null) {
+                seed(service);
+            } else {
+                seedOverHttp();
+            }
+            ObjectNode report = drive();
+            Files.writeString(reports.resolve(scenario.name() + ".json"),
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+            for (Map.Entry<String, Endpoint> endpoint : endpoints.entrySet()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        reports.resolve(scenario.name() + "-" + endpoint.getKey() + ".hgrm")))) {
+                    endpoint.getValue().total.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.get("endpoints")));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        List<String> arguments = new ArrayList<>();
+        scenario.properties().forEach((key, value) -> arguments.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(ItTaskApplication.class)
+                .properties("server.port=0", "logging.level.root=warn")
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private void seed(PostService service) {
+        for (int seeded = 0; seeded < scenario.dataset(); seeded += SEED_CHUNK) {
+            List<PostRequest> requests = new ArrayList<>();
+            for (int i = seeded; i < Math.min(scenario.dataset(), seeded + SEED_CHUNK); i++) {
+                requests.add(request(i));
+            }
+            service.createAll(requests).getIds().forEach(ids::add);
+        }
+    }
+
+    /**
+     * The reactive stack has no {@link PostService}, so its dataset goes in through {@code POST /post}.
+     */
+    private void seedOverHttp() {
+        for (int seeded = 0; seeded < scenario.dataset(); seeded += SEED_CONCURRENCY) {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = seeded; i < Math.min(scenario.dataset(), seeded + SEED_CONCURRENCY); i++) {
+                HttpRequest request = HttpRequest.newBuilder(baseUri)
+                        .header("Content-Type", "application/json")
+                        .POST(body(i))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                Operation.CREATE.completed(this, response.join());
+            }
+        }
+    }
+
+    private ObjectNode drive() throws InterruptedException {
+        System.gc();
+        baselineLiveHeap = liveHeapBytes();
+        baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        long period = TimeUnit.SECONDS.toNanos(1) / scenario.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + scenario.warmup().toNanos();
+        long end = measureFrom + scenario.duration().toNanos();
+        ArrayNode timeline = objectMapper.createArrayNode();
+        Thread reporter = new Thread(() -> report(start, measureFrom, end, timeline), "load-reporter");
+        reporter.start();
+
+        Endpoint[] schedule = schedule();
+        AtomicLong issued = new AtomicLong();
+        for (long i = 0; ; i++) {
+            long intended = start + i * period;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            HttpRequest request = endpoint.operation.request(this);
+            if (request == null) {
+                continue;
+            }
+            issued.incrementAndGet();
+            inFlight.incrementAndGet();
+            Outstanding pending = new Outstanding(endpoint, intended);
+            outstanding.add(pending);
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                if (!outstanding.remove(pending)) {
+                    return;
+                }
+                endpoint.recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (System.nanoTime() - intended) / 1000));
+                if (failure != null) {
+                    endpoint.failures.incrementAndGet();
+                } else {
+                    endpoint.statuses.computeIfAbsent(response.statusCode() / 100 + "xx", key -> new AtomicLong()).incrementAndGet();
+                    endpoint.operation.completed(this, response);
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        long drainDeadline = end + DRAIN_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long timedOut = timeOut(drainDeadline);
+        reporter.join();
+
+        ObjectNode report = objectMapper.createObjectNode();
+        report.set("scenario", objectMapper.valueToTree(scenario));
+        report.put("issued", issued.get());
+        report.put("timedOut", timedOut);
+        report.set("memory", memory());
+        ObjectNode summary = report.putObject("endpoints");
+        endpoints.forEach((name, endpoint) -> summary.set(name, endpoint.summary(scenario.duration().toSeconds())));
+        report.set("timeline", timeline);
+        return report;
+    }
+
+    /**
+     * Requests still unanswered at the drain deadline are recorded as having taken until then and counted as
+     * timeouts, so the slowest responses are not silently missing from the percentiles. One that completes at the
+     * same moment is recorded by whichever side removes it from {@link #outstanding} first.
+     */
+    private long timeOut(long deadline) {
+        long timedOut = 0;
+        for (Outstanding pending : outstanding) {
+            if (outstanding.remove(pending)) {
+                pending.endpoint.recorder.recordValue(
+                        Math.min(HIGHEST_TRACKABLE_MICROS, (deadline - pending.intended) / 1000));
+                pending.endpoint.timeouts.incrementAndGet();
+                inFlight.decrementAndGet();
+                timedOut++;
+            }
+        }
+        return timedOut;
+    }
+
+    private void report(long start, long measureFrom, long end, ArrayNode timeline) {
+        long interval = scenario.interval().toNanos();
+        for (long tick = start + interval; ; tick += interval) {
+            long wait;
+            while ((wait = tick - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean last = tick >= end && inFlight.get() == 0;
+            ObjectNode row = timeline.addObject();
+            row.put("second", TimeUnit.NANOSECONDS.toMillis(tick - start) / 1000.0);
+            if (tick > measureFrom) {
+                sampleMemory(row);
+            }
+            for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+                Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+                if (tick > measureFrom) {
+                    entry.getValue().total.add(histogram);
+                }
+                ObjectNode cell = row.putObject(entry.getKey());
+                cell.put("count", histogram.getTotalCount());
+                cell.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+                cell.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+            }
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Heap still in use after the last collection, and the live thread count, against the requests in flight at
+     * that moment; their growth over the idle baseline is roughly what each open connection costs.
+     */
+    private void sampleMemory(ObjectNode row) {
+        long liveHeap = liveHeapBytes();
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        int open = inFlight.get();
+        row.put("inFlight", open);
+        row.put("liveHeapMb", liveHeap / (1024.0 * 1024.0));
+        row.put("threads", threads);
+        peakInFlight.accumulateAndGet(open, Math::max);
+        peakLiveHeap.accumulateAndGet(liveHeap, Math::max);
+        peakThreads.accumulateAndGet(threads, Math::max);
+    }
+
+    private ObjectNode memory() {
+        ObjectNode memory = objectMapper.createObjectNode();
+        memory.put("baselineLiveHeapMb", baselineLiveHeap / (1024.0 * 1024.0));
+        memory.put("baselineThreads", baselineThreads);
+        memory.put("peakLiveHeapMb", peakLiveHeap.get() / (1024.0 * 1024.0));
+        memory.put("peakThreads", peakThreads.get());
+        memory.put("peakInFlight", peakInFlight.get());
+        if (peakInFlight.get() > 0) {
+            memory.put("heapPerInFlightKb",
+                    Math.max(0, peakLiveHeap.get() - baselineLiveHeap) / 1024.0 / peakInFlight.get());
+        }
+        return memory;
+    }
+
+    private static long liveHeapBytes() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            used += usage != null ? usage.getUsed() : 0;
+        }
+        return used;
+    }
+
+    private Endpoint[] schedule() {
+        List<Endpoint> schedule = new ArrayList<>();
+        endpoints.values().forEach(endpoint -> {
+            for (int i = 0; i < endpoint.weight; i++) {
+                schedule.add(endpoint);
+            }
+        });
+        return schedule.toArray(Endpoint[]::new);
+    }
+
+    private HttpRequest.BodyPublisher body(int seed) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request(seed)));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static PostRequest request(int seed) {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title " + seed);
+        request.setContent("Content " + seed + " lorem ipsum dolor sit amet");
+        return request;
+    }
+
+    enum Operation {
+        GET {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                int id = harness.ids.random();
+                return id < 0 ? null : HttpRequest.newBuilder(harness.baseUri.resolve("post/" + id)).GET().build();
+            }
+        },
+        CREATE {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                return json(HttpRequest.newBuilder(harness.baseUri))
+                        .POST(harness.body(ThreadLocalRandom.current().nextInt())).build();
+            }
+
+            @Override
+            void completed(LoadHarness harness, HttpResponse<String> response) {
+                if (response.statusCode() == 200) {
+                    try {
+                        JsonNode post = harness.objectMapper.readTree(response.body());
+                        harness.ids.add(post.get("id").asInt());
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        },
+        UPDATE {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                int id = harness.ids.random();
+                return id < 0 ? null : json(HttpRequest.newBuilder(harness.baseUri.resolve("post/" + id)))
+                        .PUT(harness.body(ThreadLocalRandom.current().nextInt())).build();
+            }
+        },
+        DELETE {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                int id = harness.ids.take();
+                return id < 0 ? null : HttpRequest.newBuilder(harness.baseUri.resolve("post/" + id)).DELETE().build();
+            }
+        },
+        LIST {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                return HttpRequest.newBuilder(harness.baseUri).GET().build();
+            }
+        },
+        SEARCH {
+            @Override
+            HttpRequest request(LoadHarness harness) {
+                int term = ThreadLocalRandom.current().nextInt(Math.max(1, harness.scenario.dataset()));
+                return HttpRequest.newBuilder(harness.baseUri.resolve("post/search?q=content+" + term)).GET().build();
+            }
+        };
+
+        abstract HttpRequest request(LoadHarness harness);
+
+        void completed(LoadHarness harness, HttpResponse<String> response) {
+        }
+
+        static Operation of(String name) {
+            return valueOf(name.toUpperCase());
+        }
+
+        private static HttpRequest.Builder json(HttpRequest.Builder builder) {
+            return builder.header("Content-Type", "application/json");
+        }
+    }
+
+    private final class Endpoint {
+        private final Operation operation;
+        private final int weight;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Map<String, AtomicLong> statuses = new ConcurrentSkipListMap<>();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private Endpoint(Operation operation, int weight) {
+            this.operation = operation;
+            this.weight = weight;
+        }
+
+        ObjectNode summary(long seconds) {
+            ObjectNode summary = objectMapper.createObjectNode();
+            summary.put("count", total.getTotalCount());
+            summary.put("throughput", (double) total.getTotalCount() / Math.max(1, seconds));
+            summary.put("failures", failures.get());
+            summary.put("timeouts", timeouts.get());
+            ObjectNode codes = summary.putObject("statuses");
+            statuses.forEach((code, count) -> codes.put(code, count.get()));
+            summary.put("p50", total.getValueAtPercentile(50) / 1000.0);
+            summary.put("p90", total.getValueAtPercentile(90) / 1000.0);
+            summary.put("p99", total.getValueAtPercentile(99) / 1000.0);
+            summary.put("p999", total.getValueAtPercentile(99.9) / 1000.0);
+            summary.put("max", total.getMaxValue() / 1000.0);
+            return summary;
+        }
+    }
+
+    /**
+     * Identity matters here: a request is settled once, by its response or by the drain deadline.
+     */
+    private static final class Outstanding {
+        private final Endpoint endpoint;
+        private final long intended;
+
+        private Outstanding(Endpoint endpoint, long intended) {
+            this.endpoint = endpoint;
+            this.intended = intended;
+        }
+    }
+
+    private static final class IdPool {
+        private int[] ids = new int[1024];
+        private int size;
+
+        synchronized void add(Integer id) {
+            if (id == null) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized int random() {
+            return size == 0 ? -1 : ids[ThreadLocalRandom.current().nextInt(size)];
+        }
+
+        synchronized int take() {
+            if (size == 0) {
+                return -1;
+            }
+            int position = ThreadLocalRandom.current().nextInt(size);
+            int id = ids[position];
+            ids[position] = ids[--size];
+            return id;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rklymus.ittask;
+
+import java.time.Duration;
+import java.util.Map;
+
+public record LoadScenario(String name,
+                           int rate,
+                           Duration warmup,
+                           Duration duration,
+                           Duration interval,
+                           int dataset,
+                           Map<String, Integer> mix,
+                           Map<String, String> properties) {
+
+    public LoadScenario {
+        warmup = warmup != null ? warmup : Duration.ofSeconds(5);
+        duration = duration != null ? duration : Duration.ofSeconds(30);
+        interval = interval != null ? interval : Duration.ofSeconds(1);
+        mix = mix != null ? mix : Map.of("get", 100);
+        properties = properties != null ? properties : Map.of();
+    }
+}
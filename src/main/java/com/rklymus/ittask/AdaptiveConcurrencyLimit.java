@@ -0,0 +1,115 @@
+package com.rklymus.ittask;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient concurrency limit in the style of Netflix's Gradient2. A long-window moving average of latency
+ * is the baseline; while recent latency stays within {@code tolerance} of it the limit grows by a small queue
+ * allowance, and as latency climbs above it the limit shrinks in proportion (by at most half per sample).
+ * The limit only grows while at least half of it is in use, so an idle service does not drift to the maximum.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final MovingAverage longRtt;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+
+    public AdaptiveConcurrencyLimit(PostProperties.ConcurrencyLimit.Bounds bounds,
+                                    PostProperties.ConcurrencyLimit config) {
+        this.minLimit = bounds.getMin();
+        this.maxLimit = bounds.getMax();
+        this.smoothing = config.getSmoothing();
+        this.tolerance = config.getRttTolerance();
+        this.longRtt = new MovingAverage(config.getLongWindow());
+        this.estimatedLimit = bounds.getInitial();
+        this.limit = bounds.getInitial();
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} are in use. Returns the number in flight including this one,
+     * or -1 when the limit is reached.
+     */
+    public int tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return -1;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return current + 1;
+    }
+
+    /**
+     * Frees a slot without feeding its latency into the limit, e.g. for requests that went asynchronous.
+     */
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public void release(int inflightAtStart, long rttNanos) {
+        inflight.decrementAndGet();
+        onSample(inflightAtStart, rttNanos);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    synchronized void onSample(int inflightAtStart, long rttNanos) {
+        double shortRtt = Math.max(1, rttNanos);
+        double baseline = longRtt.add(shortRtt);
+        if (baseline / shortRtt > 2) {
+            baseline = longRtt.scale(0.95);
+        }
+        if (inflightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Exponential moving average that starts as a plain mean until {@code window} samples have been seen.
+     */
+    private static final class MovingAverage {
+        private final int window;
+        private final double factor;
+        private double value;
+        private int count;
+
+        MovingAverage(int window) {
+            this.window = window;
+            this.factor = 2.0 / (window + 1);
+        }
+
+        double add(double sample) {
+            if (count < window) {
+                count++;
+                value += (sample - value) / count;
+            } else {
+                value = value * (1 - factor) + sample * factor;
+            }
+            return value;
+        }
+
+        double scale(double by) {
+            value *= by;
+            return value;
+        }
+    }
+}
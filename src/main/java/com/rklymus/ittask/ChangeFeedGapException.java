@@ -0,0 +1,7 @@
+package com.rklymus.ittask;
+
+public class ChangeFeedGapException extends RuntimeException {
+    public ChangeFeedGapException(long since, long oldest) {
+        super("Changes after " + since + " are no longer available (oldest is " + oldest + "), resync required");
+    }
+}
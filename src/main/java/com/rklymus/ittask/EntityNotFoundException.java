@@ -1,7 +1,20 @@
 package com.rklymus.ittask;
 
 public class EntityNotFoundException extends RuntimeException {
+
+    private final Integer id;
+
     public EntityNotFoundException(Integer id) {
-        super("Entity with id=" + id + " not found");
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Entity with id=" + id + " not found";
     }
 }
@@ -0,0 +1,31 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times session flushes, which Hibernate statistics only count. Hibernate instantiates one listener per session
+ * (see {@code hibernate.session.events.auto}), so the timer lives in the global registry Spring Boot publishes to.
+ */
+public class HibernateFlushMetrics extends BaseSessionEventListener {
+
+    private static final Timer FLUSH_TIMER = Timer.builder("hibernate.flush")
+            .description("Time spent flushing Hibernate sessions")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    private long flushStart;
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        FLUSH_TIMER.record(System.nanoTime() - flushStart, TimeUnit.NANOSECONDS);
+    }
+}
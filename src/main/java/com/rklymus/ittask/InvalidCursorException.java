@@ -0,0 +1,7 @@
+package com.rklymus.ittask;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor " + cursor);
+    }
+}
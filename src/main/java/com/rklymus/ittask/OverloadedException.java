@@ -0,0 +1,20 @@
+package com.rklymus.ittask;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown for every shed request, so it skips filling in a stack trace, which would cost more than the request it
+ * turns away.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String kind, int limit, Duration retryAfter) {
+        super("Too many concurrent " + kind + " requests (limit " + limit + "), retry later", null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
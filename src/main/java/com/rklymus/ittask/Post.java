@@ -4,8 +4,14 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Objects;
 
 @Getter
@@ -13,25 +19,71 @@ import java.util.Objects;
 @ToString
 @RequiredArgsConstructor
 @Entity
-@Table
+@Table(indexes = @Index(name = "idx_post_timestamp_id", columnList = "timestamp, id"))
 public class Post {
 
+    public static final String SEQUENCE = "post_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SEQUENCE)
+    @GenericGenerator(name = SEQUENCE, strategy = "com.rklymus.ittask.PostIdGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = SEQUENCE),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + PostShards.BLOCK_SIZE)
+    })
     private Integer id;
 
     private String title;
 
+    @Lob
+    @Convert(converter = PostContentConverter.class)
     private String content;
 
     @CreationTimestamp
     private LocalDateTime timestamp;
 
+    @UpdateTimestamp
+    private LocalDateTime modified;
+
+    @Version
+    private Long version;
+
     public void updateWith(PostRequest request) {
         title = request.getTitle();
         content = request.getContent();
     }
 
+    public String etag() {
+        return "\"" + id + "-" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} value asks for, or null for {@code *}. If-Match uses the strong comparison
+     * (RFC 9110, section 13.1.1), so a weak validator never matches.
+     */
+    public static Long versionOf(Integer id, String etag) {
+        String value = etag.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            throw new PreconditionFailedException(id);
+        }
+        value = value.replace("\"", "");
+        int separator = value.lastIndexOf('-');
+        try {
+            if (separator > 0 && Integer.valueOf(value.substring(0, separator)).equals(id)) {
+                return Long.valueOf(value.substring(separator + 1));
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new PreconditionFailedException(id);
+    }
+
+    public Instant lastModified() {
+        LocalDateTime value = modified != null ? modified : timestamp;
+        return value != null ? value.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
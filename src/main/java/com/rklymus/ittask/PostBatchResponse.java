@@ -0,0 +1,20 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PostBatchResponse {
+    private final List<Integer> ids = new ArrayList<>();
+    private final List<ItemError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index;
+        private String message;
+    }
+}
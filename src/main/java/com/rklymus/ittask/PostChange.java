@@ -0,0 +1,10 @@
+package com.rklymus.ittask;
+
+import java.time.LocalDateTime;
+
+public record PostChange(long sequence, Type type, Integer id, Long version, LocalDateTime at) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
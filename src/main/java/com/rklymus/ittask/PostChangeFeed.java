@@ -0,0 +1,307 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded in-memory log of post changes. Long-poll requests and SSE subscribers are parked without holding a
+ * thread; a single dispatcher thread hands new changes to all of them after each publish.
+ * <p>
+ * The dispatcher never writes to an SSE connection itself: it queues changes per subscriber, up to
+ * {@code post.changes.subscriber-buffer} of them, and one of {@code post.changes.senders} sender threads drains
+ * each queue. A client that stops reading therefore stalls only the sender writing to it. It is dropped once its
+ * queue overflows or a single send has been blocked for {@code post.changes.send-timeout}, and can reconnect with
+ * the last event id it got.
+ * <p>
+ * Sequence numbers start at the startup time in microseconds, so they keep increasing across restarts and a
+ * cursor from before a restart (or one the buffer has moved past) is answered with a resync signal instead of
+ * silently skipping changes.
+ */
+@Slf4j
+@Component
+public class PostChangeFeed {
+
+    private final PostProperties.Changes config;
+    private final PostChange[] ring;
+    private final Queue<Poll> polls = new ConcurrentLinkedQueue<>();
+    private final Queue<Subscriber> subscribers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadPoolExecutor senders;
+
+    private final long first;
+    private long head;
+
+    public PostChangeFeed(PostProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        config = properties.getChanges();
+        ring = new PostChange[config.getCapacity()];
+        senders = new ThreadPoolExecutor(config.getSenders(), config.getSenders(), 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "post-change-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders.allowCoreThreadTimeOut(true);
+        first = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        head = first;
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("post.changes.subscribers", polls, Queue::size).tag("type", "poll").register(registry);
+            Gauge.builder("post.changes.subscribers", subscribers, Queue::size).tag("type", "sse").register(registry);
+        });
+    }
+
+    public void publish(PostChange.Type type, Integer id, Long version) {
+        synchronized (this) {
+            head++;
+            ring[(int) (head % ring.length)] = new PostChange(head, type, id, version, LocalDateTime.now());
+        }
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    public void publishAll(PostChange.Type type, List<Post> posts) {
+        posts.forEach(post -> publish(type, post.getId(), post.getVersion()));
+    }
+
+    public synchronized long head() {
+        return head;
+    }
+
+    /**
+     * Changes with a sequence greater than {@code since}, at most {@code max} of them.
+     */
+    public synchronized PostChanges since(long since, int max) {
+        long oldest = Math.max(first + 1, head - ring.length + 1);
+        if (since > head || since < oldest - 1) {
+            throw new ChangeFeedGapException(since, oldest);
+        }
+        List<PostChange> items = new ArrayList<>((int) Math.min(max, head - since));
+        for (long sequence = since + 1; sequence <= head && items.size() < max; sequence++) {
+            items.add(ring[(int) (sequence % ring.length)]);
+        }
+        return new PostChanges(items, items.isEmpty() ? since : items.get(items.size() - 1).sequence());
+    }
+
+    /**
+     * Answers with the changes after {@code since} as soon as there are any, or with none after the poll timeout.
+     */
+    public DeferredResult<PostChanges> poll(Long since) {
+        long from = since != null ? since : head();
+        PostChanges available = since(from, config.getMaxBatch());
+        DeferredResult<PostChanges> result = new DeferredResult<>(config.getPollTimeout().toMillis(),
+                () -> new PostChanges(List.of(), from));
+        if (!available.getItems().isEmpty()) {
+            result.setResult(available);
+            return result;
+        }
+        Poll poll = new Poll(from, result);
+        result.onCompletion(() -> polls.remove(poll));
+        polls.add(poll);
+        // A change published between the check above and registering the poll would otherwise wait out the timeout.
+        if (offer(poll)) {
+            polls.remove(poll);
+        }
+        return result;
+    }
+
+    /**
+     * Streams the changes after {@code since} as they happen. A cursor the buffer no longer covers is answered on
+     * the stream itself, with a {@code resync} event, as the client asked for an event stream and cannot be sent an
+     * error body.
+     */
+    public SseEmitter subscribe(Long since) {
+        long from = since != null ? since : head();
+        SseEmitter emitter = new SseEmitter(config.getSseTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, from, config.getSubscriberBuffer());
+        try {
+            since(from, 0);
+        } catch (ChangeFeedGapException ex) {
+            subscriber.gap = ex;
+            drain(subscriber);
+            return emitter;
+        }
+        Runnable remove = () -> subscribers.remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        subscribers.add(subscriber);
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+        return emitter;
+    }
+
+    /**
+     * Drops subscribers whose current send has been blocked past {@code post.changes.send-timeout}, so that they
+     * get nothing more queued and their sender completes the stream as soon as the write returns. The emitter
+     * cannot be completed from here, as that waits for the blocked send. The sender thread itself is freed once
+     * the servlet container times the write out (its connection timeout, for Tomcat).
+     */
+    @Scheduled(fixedDelayString = "PT1S")
+    public void dropBlockedSubscribers() {
+        long now = System.nanoTime();
+        long timeout = config.getSendTimeout().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > timeout) {
+                log.debug("Dropping change feed subscriber blocked in send for {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - sendingSince));
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        polls.removeIf(this::offer);
+        subscribers.forEach(this::enqueue);
+    }
+
+    /**
+     * Completes the poll if there is anything for it. Returns whether the poll is finished with.
+     */
+    private boolean offer(Poll poll) {
+        if (poll.result.isSetOrExpired()) {
+            return true;
+        }
+        try {
+            PostChanges changes = since(poll.since, config.getMaxBatch());
+            return !changes.getItems().isEmpty() && poll.result.setResult(changes);
+        } catch (ChangeFeedGapException ex) {
+            return poll.result.setErrorResult(ex);
+        }
+    }
+
+    /**
+     * Queues the changes the subscriber has not been handed yet and makes sure a sender is draining them.
+     */
+    private void enqueue(Subscriber subscriber) {
+        try {
+            PostChanges changes;
+            do {
+                changes = since(subscriber.queued, config.getMaxBatch());
+                for (PostChange change : changes.getItems()) {
+                    if (!subscriber.queue.offer(change)) {
+                        log.debug("Dropping change feed subscriber with {} unsent changes", subscriber.queue.size());
+                        drop(subscriber);
+                        drain(subscriber);
+                        return;
+                    }
+                    subscriber.queued = change.sequence();
+                }
+            } while (changes.getItems().size() == config.getMaxBatch());
+        } catch (ChangeFeedGapException ex) {
+            subscribers.remove(subscriber);
+            subscriber.gap = ex;
+        }
+        drain(subscriber);
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.dropped = true;
+        subscriber.queue.clear();
+    }
+
+    private void drain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Runs on a sender thread, at most one per subscriber. {@link SseEmitter#send} blocks while the client is not
+     * reading, and so does completing the emitter meanwhile, which is why neither happens on the dispatcher. The
+     * start of each send is recorded for {@link #dropBlockedSubscribers()}.
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            PostChange change;
+            while (!subscriber.dropped && (change = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.sequence()))
+                            .name(change.type().name().toLowerCase())
+                            .data(change, MediaType.APPLICATION_JSON));
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+            if (subscriber.dropped) {
+                subscriber.emitter.complete();
+                return;
+            }
+            if (subscriber.gap != null) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().name("resync").data(subscriber.gap.getMessage()));
+                    subscriber.emitter.complete();
+                } catch (Exception ignored) {
+                    subscriber.emitter.completeWithError(subscriber.gap);
+                }
+                return;
+            }
+        } catch (Exception ex) {
+            log.debug("Dropping change feed subscriber", ex);
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+            return;
+        }
+        subscriber.draining.set(false);
+        // A change queued after the loop found the queue empty, but before draining was cleared, needs a sender too.
+        if (!subscriber.queue.isEmpty() || subscriber.dropped || subscriber.gap != null) {
+            drain(subscriber);
+        }
+    }
+
+    private record Poll(long since, DeferredResult<PostChanges> result) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<PostChange> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /**
+         * Sequence of the last change queued, only touched by the dispatcher.
+         */
+        private long queued;
+        private volatile boolean dropped;
+        /**
+         * {@link System#nanoTime()} when the send in progress started, or 0 between sends.
+         */
+        private volatile long sendingSince;
+        private volatile ChangeFeedGapException gap;
+
+        Subscriber(SseEmitter emitter, long since, int buffer) {
+            this.emitter = emitter;
+            this.queued = since;
+            this.queue = new ArrayBlockingQueue<>(buffer);
+        }
+    }
+}
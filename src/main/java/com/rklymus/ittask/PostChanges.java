@@ -0,0 +1,13 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PostChanges {
+    private List<PostChange> items;
+    private long next;
+}
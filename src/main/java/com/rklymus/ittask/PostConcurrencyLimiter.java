@@ -0,0 +1,101 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Sheds /post requests once more are in flight than the adaptive limit for their kind allows, so that excess
+ * load is turned away quickly instead of queueing on the connection pool. Reads (GET, HEAD and multi-get lookups)
+ * and writes are limited separately. Requests that go asynchronous give their slot back as soon as they leave the
+ * container thread and are not sampled.
+ */
+@Component
+public class PostConcurrencyLimiter implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = PostConcurrencyLimiter.class.getName() + ".permit";
+
+    private final PostProperties.ConcurrencyLimit config;
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+    private final Map<String, Counter> rejections;
+
+    public PostConcurrencyLimiter(PostProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        config = properties.getConcurrencyLimit();
+        limits = Map.of("read", new AdaptiveConcurrencyLimit(config.getRead(), config),
+                "write", new AdaptiveConcurrencyLimit(config.getWrite(), config));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        rejections = registry == null ? Map.of() : Map.of(
+                "read", registry.counter("post.concurrency.rejected", "kind", "read"),
+                "write", registry.counter("post.concurrency.rejected", "kind", "write"));
+        if (registry != null) {
+            limits.forEach((kind, limit) -> {
+                Gauge.builder("post.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                        .tag("kind", kind)
+                        .register(registry);
+                Gauge.builder("post.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+                        .tag("kind", kind)
+                        .register(registry);
+            });
+        }
+    }
+
+    public AdaptiveConcurrencyLimit limit(String kind) {
+        return limits.get(kind);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!config.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String kind = kindOf(request);
+        AdaptiveConcurrencyLimit limit = limits.get(kind);
+        int inflight = limit.tryAcquire();
+        if (inflight < 0) {
+            Counter rejected = rejections.get(kind);
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new OverloadedException(kind, limit.getLimit(), config.getRetryAfter());
+        }
+        request.setAttribute(PERMIT, new Permit(limit, inflight, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.limit().release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.limit().release(permit.inflight(), System.nanoTime() - permit.start());
+        }
+    }
+
+    private static String kindOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.POST.matches(method) && request.getRequestURI().endsWith("/post/lookup");
+        return read ? "read" : "write";
+    }
+
+    private record Permit(AdaptiveConcurrencyLimit limit, int inflight, long start) {
+    }
+}
@@ -1,19 +1,103 @@
 package com.rklymus.ittask;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/post")
+@Profile("!reactive")
 public class PostController {
 
+    public static final String NDJSON = "application/x-ndjson";
+
     private final PostService service;
+    private final ObjectMapper objectMapper;
+    private final PostChangeFeed changeFeed;
+
+    @GetMapping
+    public PostPage list(@RequestParam(required = false) String cursor,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                         @RequestParam(required = false) Integer size) {
+        return service.list(cursor, from, to, size);
+    }
+
+    @GetMapping(params = "ids")
+    public PostLookupResponse getAll(@RequestParam List<Integer> ids) {
+        return service.getAll(ids);
+    }
+
+    @PostMapping("/lookup")
+    public PostLookupResponse lookup(@RequestBody List<Integer> ids) {
+        return service.getAll(ids);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = objectMapper.writerFor(Post.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                service.exportAll(post -> {
+                    try {
+                        writer.writeValue(generator, post);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.valueOf(NDJSON)).body(body);
+    }
+
+    @GetMapping("/changes")
+    public DeferredResult<PostChanges> changes(@RequestParam(required = false) Long since) {
+        return changeFeed.poll(since);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeed.subscribe(since != null ? since : lastEventId);
+    }
+
+    @GetMapping("/search")
+    public List<PostSummary> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return service.search(q, limit);
+    }
+
+    @GetMapping("/stats")
+    public PostStatsResponse stats() {
+        return service.stats();
+    }
 
     @GetMapping("/{id}")
-    public Post get(@PathVariable Integer id) {
-        return service.get(id);
+    public ResponseEntity<Post> get(@PathVariable Integer id) {
+        return withValidators(service.get(id));
     }
 
     @PostMapping
@@ -21,13 +105,40 @@ public class PostController {
         return service.create(request);
     }
 
+    @PostMapping("/batch")
+    public PostBatchResponse createAll(@RequestBody List<PostRequest> requests) {
+        return service.createAll(requests);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public PostImportResponse importAll(HttpServletRequest request) throws IOException {
+        return service.importAll(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+    }
+
     @PutMapping("/{id}")
-    public Post update(@PathVariable Integer id, @RequestBody @Valid PostRequest request) {
-        return service.update(id, request);
+    public ResponseEntity<Post> update(@PathVariable Integer id,
+                                       @RequestBody @Valid PostRequest request,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withValidators(service.update(id, request, ifMatch != null ? Post.versionOf(id, ifMatch) : null));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Post> patch(@PathVariable Integer id,
+                                      @RequestBody PostPatchRequest request,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withValidators(service.patch(id, request, ifMatch != null ? Post.versionOf(id, ifMatch) : null));
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Integer id) {
         service.delete(id);
     }
+
+    private static ResponseEntity<Post> withValidators(Post post) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(post.etag());
+        if (post.lastModified() != null) {
+            response.lastModified(post.lastModified());
+        }
+        return response.body(post);
+    }
 }
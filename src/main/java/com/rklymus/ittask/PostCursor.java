@@ -0,0 +1,35 @@
+package com.rklymus.ittask;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record PostCursor(LocalDateTime timestamp, Integer id) {
+
+    private static final char SEPARATOR = '_';
+
+    public static PostCursor of(Post post) {
+        return new PostCursor(post.getTimestamp(), post.getId());
+    }
+
+    public static PostCursor of(PostSummary summary) {
+        return new PostCursor(summary.timestamp(), summary.id());
+    }
+
+    public static PostCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new PostCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Integer.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new InvalidCursorException(value);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
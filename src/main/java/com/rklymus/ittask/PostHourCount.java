@@ -0,0 +1,14 @@
+package com.rklymus.ittask;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of posts created within one hour, as grouped by the database. The hour fields are null for posts
+ * without a timestamp.
+ */
+public record PostHourCount(Integer year, Integer month, Integer day, Integer hour, Long count) {
+
+    public LocalDateTime start() {
+        return year != null ? LocalDateTime.of(year, month, day, hour, 0) : null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.rklymus.ittask;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over existing post ids. A negative answer is definite, so lookups for unknown ids can be
+ * answered without a query. Deleted ids cannot be cleared from a Bloom filter; they only cost a false positive
+ * until the next periodic rebuild.
+ * <p>
+ * Off unless {@code post.id-filter.enabled} is set, and only for a single instance that makes every insert
+ * itself: the filter learns ids from its own creates and from the rebuild scan, so a post inserted by another
+ * instance (or directly in the database) would read as missing until the next rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!reactive")
+public class PostIdFilter {
+
+    private static final int REBUILD_CHUNK = 10_000;
+
+    private final PostRepo postRepo;
+    private final PostProperties properties;
+    private final PostShards shards;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    public boolean mightContain(Integer id) {
+        BloomFilter filter = current;
+        return filter == null || id == null || !properties.getIdFilter().isEnabled() || filter.mightContain(id);
+    }
+
+    /**
+     * Adds a committed id. {@link #building} is read before {@link #current}: if no rebuild was running yet, the
+     * rebuild's scan starts after the commit and sees the id; otherwise the id goes into the filter being built.
+     * Reading them the other way round loses ids committed behind the scan while the new filter is published.
+     */
+    public void add(Integer id) {
+        BloomFilter filter = building;
+        if (filter != null) {
+            filter.put(id);
+        }
+        filter = current;
+        if (filter != null) {
+            filter.put(id);
+        }
+    }
+
+    public void addAll(List<Post> posts) {
+        posts.forEach(post -> add(post.getId()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (properties.getIdFilter().isEnabled()) {
+            Thread thread = new Thread(this::rebuild, "post-id-filter-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${post.id-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${post.id-filter.rebuild-interval:PT1H}")
+    public void rebuildPeriodically() {
+        if (properties.getIdFilter().isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        PostProperties.IdFilter config = properties.getIdFilter();
+        BloomFilter previous = current;
+        long expected = Math.max(config.getExpectedInsertions(), previous == null ? 0 : previous.count.get() * 2);
+        BloomFilter filter = new BloomFilter(expected, config.getFalsePositiveRate());
+        building = filter;
+        try {
+            // A replica lagging behind would leave out recent ids, which then read as definite misses.
+            ReplicaRoutingDataSource.onPrimary(() -> shards.onEach(shard -> {
+                Integer after = Integer.MIN_VALUE;
+                List<Integer> ids;
+                do {
+                    ids = postRepo.findIdsAfter(after, PageRequest.of(0, REBUILD_CHUNK));
+                    ids.forEach(filter::put);
+                    if (!ids.isEmpty()) {
+                        after = ids.get(ids.size() - 1);
+                    }
+                } while (ids.size() == REBUILD_CHUNK);
+                return null;
+            }));
+            current = filter;
+        } finally {
+            building = null;
+        }
+        log.info("Id filter rebuilt with {} ids in {} ms", filter.count.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong count = new AtomicLong();
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) (-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+            bitCount = bits.length() * 64L;
+            hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(int id) {
+            long hash = mix(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                while (((value = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                    Thread.onSpinWait();
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        boolean mightContain(int id) {
+            long hash = mix(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
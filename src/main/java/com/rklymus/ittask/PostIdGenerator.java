@@ -0,0 +1,16 @@
+package com.rklymus.ittask;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Keeps an id assigned up front by {@link PostShards} and falls back to the pooled sequence otherwise.
+ */
+public class PostIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer id = object instanceof Post post ? post.getId() : null;
+        return id != null ? id : super.generate(session, object);
+    }
+}
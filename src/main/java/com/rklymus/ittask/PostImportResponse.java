@@ -0,0 +1,32 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PostImportResponse {
+    private long accepted;
+    private long rejected;
+    private final List<LineError> failures = new ArrayList<>();
+
+    void accept(int count) {
+        accepted += count;
+    }
+
+    void reject(long line, String message, int maxReportedFailures) {
+        rejected++;
+        if (failures.size() < maxReportedFailures) {
+            failures.add(new LineError(line, message));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,12 @@
+package com.rklymus.ittask;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PostLookupResponse {
+    private final List<Post> items = new ArrayList<>();
+    private final List<Integer> missing = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PostPage {
+    private List<PostSummary> items;
+    private String next;
+}
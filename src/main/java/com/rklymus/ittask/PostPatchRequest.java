@@ -0,0 +1,12 @@
+package com.rklymus.ittask;
+
+import lombok.Data;
+
+/**
+ * Partial update of a post; fields left null keep their stored value.
+ */
+@Data
+public class PostPatchRequest {
+    private String title;
+    private String content;
+}
@@ -0,0 +1,150 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("post")
+public class PostProperties {
+
+    private final Batch batch = new Batch();
+    private final Page page = new Page();
+    private final Lookup lookup = new Lookup();
+    private final Search search = new Search();
+    private final Content content = new Content();
+    private final IdFilter idFilter = new IdFilter();
+    private final Snapshot snapshot = new Snapshot();
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    private final Changes changes = new Changes();
+    private final Stats stats = new Stats();
+    private final Threads threads = new Threads();
+    private final Datasource datasource = new Datasource();
+    private final Sharding sharding = new Sharding();
+
+    @Data
+    public static class Batch {
+        private int chunkSize = 500;
+        private int maxReportedFailures = 1000;
+        private int maxLineLength = 1_048_576;
+    }
+
+    @Data
+    public static class Page {
+        private int defaultSize = 20;
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class Lookup {
+        private int chunkSize = 100;
+        private int maxIds = 1000;
+    }
+
+    @Data
+    public static class Content {
+        private int compressionThreshold = 1024;
+    }
+
+    @Data
+    public static class Search {
+        private boolean rebuildOnStartup = true;
+        private int rebuildChunkSize = 10_000;
+        private int rebuildParallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class IdFilter {
+        private boolean enabled = false;
+        private int expectedInsertions = 1_000_000;
+        private double falsePositiveRate = 0.01;
+        private Duration rebuildInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Snapshot {
+        private boolean enabled = false;
+        private Path path = Path.of("post-snapshot.bin");
+        private Duration interval = Duration.ofMinutes(5);
+        private int maxEntries = 10_000;
+        private int verifyChunkSize = 500;
+    }
+
+    @Data
+    public static class ConcurrencyLimit {
+        private boolean enabled = true;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private double smoothing = 0.2;
+        private double rttTolerance = 1.5;
+        private int longWindow = 600;
+        private final Bounds read = new Bounds(50, 10, 400);
+        private final Bounds write = new Bounds(20, 4, 200);
+
+        @Data
+        @AllArgsConstructor
+        public static class Bounds {
+            private int initial;
+            private int min;
+            private int max;
+        }
+    }
+
+    @Data
+    public static class Changes {
+        private int capacity = 10_000;
+        private int maxBatch = 500;
+        private int subscriberBuffer = 1_000;
+        private int senders = 16;
+        private Duration sendTimeout = Duration.ofSeconds(10);
+        private Duration pollTimeout = Duration.ofSeconds(30);
+        private Duration sseTimeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Stats {
+        private boolean reconcile = true;
+        private Duration reconcileInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Threads {
+        private boolean virtual = false;
+    }
+
+    @Data
+    public static class Datasource {
+        private List<Replica> replicas = new ArrayList<>();
+        private Selection selection = Selection.ROUND_ROBIN;
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+        private Duration replicaConnectionTimeout = Duration.ofSeconds(2);
+
+        public enum Selection {
+            ROUND_ROBIN, LEAST_CONNECTIONS
+        }
+
+        @Data
+        public static class Replica {
+            private String url;
+            private String username;
+            private String password;
+        }
+    }
+
+    @Data
+    public static class Sharding {
+        private List<Shard> shards = new ArrayList<>();
+
+        @Data
+        public static class Shard {
+            private String url;
+            private String username;
+            private String password;
+        }
+    }
+}
@@ -1,6 +1,84 @@
 package com.rklymus.ittask;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Transactional(readOnly = true)
 public interface PostRepo extends JpaRepository<Post, Integer> {
+
+    int STREAM_FETCH_SIZE = 1000;
+
+    @Query("select p from Post p" +
+            " where (p.timestamp, p.id) > (:timestamp, :id) and p.timestamp < :to" +
+            " order by p.timestamp, p.id")
+    List<Post> findPageAfter(LocalDateTime timestamp, Integer id, LocalDateTime to, Pageable pageable);
+
+    @Query("select new com.rklymus.ittask.PostSummary(p.id, p.title, p.timestamp) from Post p" +
+            " where (p.timestamp, p.id) > (:timestamp, :id) and p.timestamp < :to" +
+            " order by p.timestamp, p.id")
+    List<PostSummary> findSummaryPageAfter(LocalDateTime timestamp, Integer id, LocalDateTime to, Pageable pageable);
+
+    @Query("select new com.rklymus.ittask.PostSummary(p.id, p.title, p.timestamp) from Post p where p.id in :ids")
+    List<PostSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+    @Query("select new com.rklymus.ittask.PostVersion(p.id, p.version) from Post p where p.id in :ids")
+    List<PostVersion> findVersionsByIdIn(Collection<Integer> ids);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Post p order by p.timestamp, p.id")
+    Stream<Post> streamAll();
+
+    @Query("select min(p.id) from Post p")
+    Integer findMinId();
+
+    @Query("select max(p.id) from Post p")
+    Integer findMaxId();
+
+    List<Post> findByIdBetween(Integer from, Integer to);
+
+    @Query("select p.id from Post p where p.id > :id order by p.id")
+    List<Integer> findIdsAfter(Integer id, Pageable pageable);
+
+    /**
+     * Empty if there is no such post, otherwise its timestamp (which may be null).
+     */
+    @Query("select p.timestamp from Post p where p.id = :id")
+    List<LocalDateTime> findTimestampById(Integer id);
+
+    @Query("select new com.rklymus.ittask.PostHourCount(year(p.timestamp), month(p.timestamp), day(p.timestamp)," +
+            " hour(p.timestamp), count(p)) from Post p" +
+            " group by year(p.timestamp), month(p.timestamp), day(p.timestamp), hour(p.timestamp)")
+    List<PostHourCount> countByHour();
+
+    /**
+     * Writes the supplied fields in a single statement; null fields are left unchanged and a non-null
+     * {@code version} makes the update conditional. A row without a version counts as version 0, as its ETag
+     * does. Returns the number of rows updated. {@code content} is
+     * passed already encoded by {@link PostContentConverter}, as the converter is not applied inside coalesce.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Post p set p.title = coalesce(:title, p.title), p.content = coalesce(:content, p.content)," +
+            " p.modified = :modified, p.version = coalesce(p.version, 0) + 1" +
+            " where p.id = :id and (:version is null or coalesce(p.version, 0) = :version)")
+    int updateFields(Integer id, String title, byte[] content, Long version, LocalDateTime modified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Post p where p.id = :id")
+    int removeById(Integer id);
 }
@@ -0,0 +1,395 @@
+package com.rklymus.ittask;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!reactive")
+public class PostSearchIndex {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final PostRepo postRepo;
+    private final PostProperties properties;
+    private final PostShards shards;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    /**
+     * Changes made while a rebuild runs, replayed onto the rebuilt index before it replaces this one.
+     */
+    private List<Mutation> pending;
+
+    public void add(Post post) {
+        ParsedDocument document = ParsedDocument.of(post);
+        lock.writeLock().lock();
+        try {
+            apply(new Mutation(post.getId(), document));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(List<Post> posts) {
+        List<ParsedDocument> parsed = posts.stream().map(ParsedDocument::of).toList();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < posts.size(); i++) {
+                apply(new Mutation(posts.get(i).getId(), parsed.get(i)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            apply(new Mutation(id, null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Integer> search(String query, int limit) {
+        String[] terms = tokenize(query).keySet().toArray(String[]::new);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                lists[i] = index.postings.get(terms[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            return index.rank(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (properties.getSearch().isRebuildOnStartup()) {
+            Thread thread = new Thread(this::rebuild, "post-search-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Builds a fresh index off the database while this one keeps serving, then swaps it in. Rows read by the
+     * rebuild may predate writes made meanwhile, so those writes are replayed onto it first, in order.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Index fresh = new Index();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ForkJoinPool pool = new ForkJoinPool(properties.getSearch().getRebuildParallelism());
+        try {
+            shards.onEach(shard -> {
+                rebuild(shard, pool, fresh);
+                return null;
+            });
+            lock.writeLock().lock();
+            try {
+                pending.forEach(fresh::apply);
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            pool.shutdown();
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Search index rebuilt with {} posts in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads on the primary, including from the pool's workers: a lagging replica would leave recent posts out.
+     */
+    private void rebuild(int shard, ForkJoinPool pool, Index fresh) {
+        Integer min = ReplicaRoutingDataSource.onPrimary(postRepo::findMinId);
+        Integer max = ReplicaRoutingDataSource.onPrimary(postRepo::findMaxId);
+        if (min == null || max == null) {
+            return;
+        }
+        int chunkSize = properties.getSearch().getRebuildChunkSize();
+        int chunks = (int) ((max.longValue() - min + chunkSize) / chunkSize);
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = min + chunk * chunkSize;
+            int to = (int) Math.min(max, (long) from + chunkSize - 1);
+            List<Post> posts = ReplicaRoutingDataSource.onPrimary(
+                    () -> shards.on(shard, () -> postRepo.findByIdBetween(from, to)));
+            List<ParsedDocument> parsed = posts.stream().map(ParsedDocument::of).toList();
+            synchronized (fresh) {
+                for (int i = 0; i < posts.size(); i++) {
+                    fresh.put(posts.get(i).getId(), parsed.get(i));
+                }
+            }
+        })).join();
+    }
+
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        if (text == null) {
+            return frequencies;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    frequencies.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+                }
+                start = -1;
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * Called with the write lock held.
+     */
+    private void apply(Mutation mutation) {
+        index.apply(mutation);
+        if (pending != null) {
+            pending.add(mutation);
+        }
+    }
+
+    private static double bm25(int stats, double idf, double averageLength) {
+        int frequency = Postings.frequency(stats);
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * Postings.length(stats) / averageLength));
+    }
+
+    private static final class Index {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Integer, Document> documents = new HashMap<>();
+        private long totalLength;
+
+        void apply(Mutation mutation) {
+            if (mutation.document() != null) {
+                put(mutation.id(), mutation.document());
+            } else {
+                evict(mutation.id());
+            }
+        }
+
+        void put(Integer id, ParsedDocument parsed) {
+            evict(id);
+            String[] terms = new String[parsed.terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                Postings list = postings.computeIfAbsent(parsed.terms[i], Postings::new);
+                list.add(id, Postings.pack(parsed.frequencies[i], parsed.length));
+                terms[i] = list.term;
+            }
+            documents.put(id, new Document(terms, parsed.length));
+            totalLength += parsed.length;
+        }
+
+        void evict(Integer id) {
+            Document previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            totalLength -= previous.length;
+            for (String term : previous.terms) {
+                Postings list = postings.get(term);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        List<Integer> rank(Postings[] lists, int limit) {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + (documentCount - lists[i].size + 0.5) / (lists[i].size + 0.5));
+            }
+            PriorityQueue<ScoredId> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(ScoredId::score));
+            int[] cursors = new int[lists.length];
+            Postings shortest = lists[0];
+            candidates:
+            for (int c = 0; c < shortest.size; c++) {
+                int id = shortest.ids[c];
+                double score = bm25(shortest.stats[c], idf[0], averageLength);
+                for (int i = 1; i < lists.length; i++) {
+                    int position = lists[i].seek(id, cursors[i]);
+                    cursors[i] = position;
+                    if (position >= lists[i].size) {
+                        break candidates;
+                    }
+                    if (lists[i].ids[position] != id) {
+                        continue candidates;
+                    }
+                    score += bm25(lists[i].stats[position], idf[i], averageLength);
+                }
+                if (top.size() < limit) {
+                    top.add(new ScoredId(id, score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new ScoredId(id, score));
+                }
+            }
+            List<Integer> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().id());
+            }
+            Collections.reverse(ranked);
+            return ranked;
+        }
+    }
+
+    /**
+     * A document to index under {@code id}, or none to remove it.
+     */
+    private record Mutation(Integer id, ParsedDocument document) {
+    }
+
+    private record ScoredId(int id, double score) {
+    }
+
+    private record Document(String[] terms, int length) {
+    }
+
+    private record ParsedDocument(String[] terms, int[] frequencies, int length) {
+
+        static ParsedDocument of(Post post) {
+            Map<String, Integer> tokens = tokenize(post.getTitle());
+            tokenize(post.getContent()).forEach((term, count) -> tokens.merge(term, count, Integer::sum));
+            String[] terms = new String[tokens.size()];
+            int[] frequencies = new int[tokens.size()];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                terms[i] = token.getKey();
+                frequencies[i++] = token.getValue();
+                length += token.getValue();
+            }
+            return new ParsedDocument(terms, frequencies, length);
+        }
+    }
+
+    /**
+     * Sorted doc ids with a parallel array of packed (term frequency, document length) pairs,
+     * so ranking never has to look documents up.
+     */
+    private static final class Postings {
+        private static final int LENGTH_BITS = 24;
+        private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+        private static final int MAX_FREQUENCY = 0xFF;
+
+        private final String term;
+        private int[] ids = new int[2];
+        private int[] stats = new int[2];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        static int pack(int frequency, int length) {
+            return Math.min(frequency, MAX_FREQUENCY) << LENGTH_BITS | Math.min(length, LENGTH_MASK);
+        }
+
+        static int frequency(int stats) {
+            return stats >>> LENGTH_BITS;
+        }
+
+        static int length(int stats) {
+            return stats & LENGTH_MASK;
+        }
+
+        void add(int id, int packed) {
+            int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                stats[position] = packed;
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                stats = Arrays.copyOf(stats, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(stats, position, stats, position + 1, size - position);
+            ids[position] = id;
+            stats[position] = packed;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(stats, position + 1, stats, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Galloping search for the first position at or after {@code from} whose id is >= {@code id}.
+         */
+        int seek(int id, int from) {
+            int bound = 1;
+            while (from + bound < size && ids[from + bound] < id) {
+                bound <<= 1;
+            }
+            int position = Arrays.binarySearch(ids, from + (bound >> 1), Math.min(size, from + bound + 1), id);
+            return position < 0 ? -position - 1 : position;
+        }
+    }
+}
@@ -1,34 +1,576 @@
 package com.rklymus.ittask;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "post.service", histogram = true)
+@CacheConfig(cacheNames = PostService.CACHE)
+@Profile("!reactive")
 public class PostService {
 
+    public static final String CACHE = "posts";
+
+    static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1, 1, 1, 0, 0);
+    static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Comparator<Post> TIMESTAMP_ORDER =
+            Comparator.comparing(Post::getTimestamp).thenComparing(Post::getId);
+    private static final Comparator<PostSummary> SUMMARY_ORDER =
+            Comparator.comparing(PostSummary::timestamp).thenComparing(PostSummary::id);
+
     private final PostRepo postRepo;
+    private final EntityManager entityManager;
+    private final PostProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PostSearchIndex searchIndex;
+    private final PostIdFilter idFilter;
+    private final CacheManager cacheManager;
+    private final RecentWrites recentWrites;
+    private final PostShards shards;
+    private final PostContentConverter contentConverter;
+    private final PostSnapshot snapshot;
+    private final PostChangeFeed changeFeed;
+    private final PostStats stats;
+    private final Map<Integer, CompletableFuture<Post>> loads = new ConcurrentHashMap<>();
 
     public Post get(Integer id) {
-        return getPost(id);
+        if (!idFilter.mightContain(id)) {
+            throw new EntityNotFoundException(id);
+        }
+        Cache cache = cache();
+        Post cached = cache.get(id, Post.class);
+        return cached != null ? cached : load(id, cache);
+    }
+
+    /**
+     * Resolves many ids at once: cached posts first, the rest with one IN query per chunk. Result order follows
+     * {@code ids}; ids with no post are reported in {@link PostLookupResponse#getMissing()}.
+     */
+    public PostLookupResponse getAll(List<Integer> ids) {
+        PostProperties.Lookup lookup = properties.getLookup();
+        if (ids.size() > lookup.getMaxIds()) {
+            throw new TooManyIdsException(ids.size(), lookup.getMaxIds());
+        }
+        Cache cache = cache();
+        Map<Integer, Post> found = new HashMap<>();
+        List<Integer> uncached = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id == null || !idFilter.mightContain(id)) {
+                continue;
+            }
+            Post post = cache.get(id, Post.class);
+            if (post != null) {
+                found.put(id, post);
+            } else {
+                uncached.add(id);
+            }
+        }
+        for (int from = 0; from < uncached.size(); from += lookup.getChunkSize()) {
+            List<Integer> chunk = uncached.subList(from, Math.min(uncached.size(), from + lookup.getChunkSize()));
+            List<Post> posts = recentWrites.containsAny(chunk)
+                    ? ReplicaRoutingDataSource.onPrimary(() -> findAllById(chunk))
+                    : findAllById(chunk);
+            posts.forEach(post -> found.put(post.getId(), post));
+        }
+        PostLookupResponse response = new PostLookupResponse();
+        for (Integer id : ids) {
+            Post post = found.get(id);
+            if (post != null) {
+                response.getItems().add(post);
+            } else {
+                response.getMissing().add(id);
+            }
+        }
+        return response;
+    }
+
+    public PostPage list(String cursor, LocalDateTime from, LocalDateTime to, Integer size) {
+        PostProperties.Page page = properties.getPage();
+        int limit = Math.max(1, Math.min(size != null ? size : page.getDefaultSize(), page.getMaxSize()));
+        PostCursor after = cursor != null
+                ? PostCursor.decode(cursor)
+                : new PostCursor(from != null ? from : MIN_TIMESTAMP, Integer.MIN_VALUE);
+        List<PostSummary> posts = shards.onEach(shard -> postRepo.findSummaryPageAfter(after.timestamp(), after.id(),
+                        to != null ? to : MAX_TIMESTAMP, PageRequest.of(0, limit + 1)))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (shards.count() > 1) {
+            posts.sort(SUMMARY_ORDER);
+        }
+        if (posts.size() <= limit) {
+            return new PostPage(posts, null);
+        }
+        List<PostSummary> items = posts.subList(0, limit);
+        return new PostPage(items, PostCursor.of(items.get(limit - 1)).encode());
+    }
+
+    /**
+     * Streams every post in timestamp order. Sharded exports page through each shard by keyset and merge the
+     * pages, since one transaction can only hold a connection to a single shard.
+     */
+    public void exportAll(Consumer<Post> action) {
+        if (shards.enabled()) {
+            exportMerged(action);
+            return;
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Post> posts = postRepo.streamAll()) {
+                int count = 0;
+                for (Post post : (Iterable<Post>) posts::iterator) {
+                    action.accept(post);
+                    if (++count % PostRepo.STREAM_FETCH_SIZE == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+        });
+    }
+
+    public List<PostSummary> search(String query, Integer limit) {
+        PostProperties.Page page = properties.getPage();
+        List<Integer> ids = searchIndex.search(query,
+                Math.max(1, Math.min(limit != null ? limit : page.getDefaultSize(), page.getMaxSize())));
+        Map<Integer, PostSummary> posts = new HashMap<>();
+        shards.groupByShard(ids).forEach((shard, shardIds) -> shards.on(shard,
+                () -> postRepo.findSummariesByIdIn(shardIds)).forEach(post -> posts.put(post.id(), post)));
+        return ids.stream().map(posts::get).filter(Objects::nonNull).toList();
     }
 
     public Post create(PostRequest request) {
-        return postRepo.save(request.toEntity());
+        int shard = shards.nextShard();
+        Post entity = request.toEntity();
+        shards.assignIds(shard, List.of(entity));
+        Post post = stats.write(shard, () -> {
+            Post saved = shards.on(shard, () -> postRepo.save(entity));
+            stats.add(shard, saved.getTimestamp());
+            return saved;
+        });
+        recentWrites.add(post.getId());
+        idFilter.add(post.getId());
+        searchIndex.add(post);
+        changeFeed.publish(PostChange.Type.CREATED, post.getId(), post.getVersion());
+        return post;
+    }
+
+    public PostStatsResponse stats() {
+        return stats.snapshot();
     }
 
-    public Post update(Integer id, PostRequest request) {
-        Post post = getPost(id);
-        post.updateWith(request);
-        return postRepo.save(post);
+    public PostBatchResponse createAll(List<PostRequest> requests) {
+        PostBatchResponse response = new PostBatchResponse();
+        int chunkSize = properties.getBatch().getChunkSize();
+        List<Post> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        for (int i = 0; i < requests.size(); i++) {
+            response.getIds().add(null);
+            String violation = validate(requests.get(i));
+            if (violation != null) {
+                response.getErrors().add(new PostBatchResponse.ItemError(i, violation));
+                continue;
+            }
+            chunk.add(requests.get(i).toEntity());
+            chunkIndexes.add(i);
+            if (chunk.size() == chunkSize) {
+                batchChunk(chunk, chunkIndexes, response);
+            }
+        }
+        batchChunk(chunk, chunkIndexes, response);
+        response.getErrors().sort(Comparator.comparingInt(PostBatchResponse.ItemError::getIndex));
+        return response;
     }
 
+    public PostImportResponse importAll(Reader body) throws IOException {
+        PostImportResponse response = new PostImportResponse();
+        PostProperties.Batch batch = properties.getBatch();
+        ObjectReader reader = objectMapper.readerFor(PostRequest.class);
+        List<Post> chunk = new ArrayList<>(batch.getChunkSize());
+        List<Long> chunkLines = new ArrayList<>(batch.getChunkSize());
+        LineReader lines = new LineReader(body, batch.getMaxLineLength());
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (lines.truncated) {
+                response.reject(lineNumber, "line is longer than " + batch.getMaxLineLength() + " characters",
+                        batch.getMaxReportedFailures());
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            PostRequest request;
+            try {
+                request = reader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                response.reject(lineNumber, ex.getOriginalMessage(), batch.getMaxReportedFailures());
+                continue;
+            }
+            String violation = validate(request);
+            if (violation != null) {
+                response.reject(lineNumber, violation, batch.getMaxReportedFailures());
+                continue;
+            }
+            chunk.add(request.toEntity());
+            chunkLines.add(lineNumber);
+            if (chunk.size() == batch.getChunkSize()) {
+                importChunk(chunk, chunkLines, response);
+            }
+        }
+        importChunk(chunk, chunkLines, response);
+        return response;
+    }
+
+    @CacheEvict(key = "#id")
+    public Post update(Integer id, PostRequest request, Long expectedVersion) {
+        return write(id, request.getTitle(), request.getContent(), expectedVersion);
+    }
+
+    @CacheEvict(key = "#id")
+    public Post patch(Integer id, PostPatchRequest request, Long expectedVersion) {
+        return write(id, request.getTitle(), request.getContent(), expectedVersion);
+    }
+
+    /**
+     * Deletes the post in one statement when it is cached. Otherwise its timestamp is read first, in the same
+     * transaction, so that {@link PostStats} can take it out of the right bucket.
+     */
+    @CacheEvict(key = "#id")
     public void delete(Integer id) {
-        Post post = getPost(id);
-        postRepo.delete(post);
+        if (!idFilter.mightContain(id)) {
+            throw new EntityNotFoundException(id);
+        }
+        Post cached = cache().get(id, Post.class);
+        int shard = shards.shardOf(id);
+        stats.write(shard, () -> {
+            LocalDateTime timestamp = shards.on(shard, () -> transactionTemplate.execute(status -> {
+                List<LocalDateTime> timestamps = cached != null
+                        ? Collections.singletonList(cached.getTimestamp())
+                        : postRepo.findTimestampById(id);
+                if (timestamps.isEmpty() || postRepo.removeById(id) == 0) {
+                    throw new EntityNotFoundException(id);
+                }
+                return timestamps.get(0);
+            }));
+            stats.remove(shard, timestamp);
+            return null;
+        });
+        invalidate(id);
+        recentWrites.add(id);
+        searchIndex.remove(id);
+        changeFeed.publish(PostChange.Type.DELETED, id, null);
+    }
+
+    private Post write(Integer id, String title, String content, Long expectedVersion) {
+        if (!idFilter.mightContain(id)) {
+            throw new EntityNotFoundException(id);
+        }
+        Post post = shards.onShardOf(id, () -> transactionTemplate.execute(status -> {
+            byte[] encoded = contentConverter.convertToDatabaseColumn(content);
+            if (postRepo.updateFields(id, title, encoded, expectedVersion, LocalDateTime.now()) == 0) {
+                if (expectedVersion != null && postRepo.existsById(id)) {
+                    throw new PreconditionFailedException(id);
+                }
+                throw new EntityNotFoundException(id);
+            }
+            return postRepo.findById(id).orElseThrow(() -> new EntityNotFoundException(id));
+        }));
+        invalidate(id);
+        recentWrites.add(id);
+        searchIndex.add(post);
+        changeFeed.publish(PostChange.Type.UPDATED, id, post.getVersion());
+        return post;
+    }
+
+    /**
+     * Loads a missing post once for all concurrent callers. The load runs outside any monitor (unlike loading
+     * through {@link Cache#get(Object, java.util.concurrent.Callable)}, which holds a map lock for the whole query
+     * and would pin virtual threads), and its result is only cached if no write to the post happened meanwhile.
+     * Snapshot entries are served but not cached: {@link PostSnapshot#verify()} caches the ones that are still
+     * current, and caching one here could bring back an entry it has just found stale and evicted.
+     */
+    private Post load(Integer id, Cache cache) {
+        CompletableFuture<Post> loading = new CompletableFuture<>();
+        CompletableFuture<Post> existing = loads.putIfAbsent(id, loading);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        try {
+            Post post = cache.get(id, Post.class);
+            boolean unverified = false;
+            if (post == null) {
+                post = snapshot.get(id);
+                unverified = post != null;
+            }
+            if (post == null) {
+                post = getPost(id);
+            }
+            Post loaded = post;
+            boolean cacheable = !unverified;
+            loads.computeIfPresent(id, (key, current) -> {
+                if (current == loading) {
+                    if (cacheable) {
+                        cache.put(id, loaded);
+                    }
+                    return null;
+                }
+                return current;
+            });
+            loading.complete(loaded);
+            return loaded;
+        } catch (RuntimeException ex) {
+            loads.remove(id, loading);
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private void invalidate(Integer id) {
+        loads.remove(id);
+        snapshot.invalidate(id);
     }
 
     private Post getPost(Integer id) {
-        return postRepo.findById(id).orElseThrow(() -> new EntityNotFoundException(id));
+        if (!idFilter.mightContain(id)) {
+            throw new EntityNotFoundException(id);
+        }
+        return shards.onShardOf(id, () -> recentWrites.read(id, () -> postRepo.findById(id)))
+                .orElseThrow(() -> new EntityNotFoundException(id));
+    }
+
+    private List<Post> findAllById(Collection<Integer> ids) {
+        if (!shards.enabled()) {
+            return postRepo.findAllById(ids);
+        }
+        List<Post> posts = new ArrayList<>(ids.size());
+        shards.groupByShard(ids).forEach((shard, shardIds) ->
+                posts.addAll(shards.on(shard, () -> postRepo.findAllById(shardIds))));
+        return posts;
+    }
+
+    private void exportMerged(Consumer<Post> action) {
+        PriorityQueue<ShardExport> heads =
+                new PriorityQueue<>(Comparator.comparing(ShardExport::head, TIMESTAMP_ORDER));
+        for (int shard = 0; shard < shards.count(); shard++) {
+            ShardExport export = new ShardExport(shard);
+            if (export.advance()) {
+                heads.add(export);
+            }
+        }
+        while (!heads.isEmpty()) {
+            ShardExport export = heads.poll();
+            action.accept(export.head());
+            if (export.advance()) {
+                heads.add(export);
+            }
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE);
+    }
+
+    private String validate(PostRequest request) {
+        if (request == null) {
+            return "must not be null";
+        }
+        Set<ConstraintViolation<PostRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void batchChunk(List<Post> chunk, List<Integer> chunkIndexes, PostBatchResponse response) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String failure = saveChunk(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (failure == null) {
+                response.getIds().set(chunkIndexes.get(i), chunk.get(i).getId());
+            } else {
+                response.getErrors().add(new PostBatchResponse.ItemError(chunkIndexes.get(i), failure));
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private void importChunk(List<Post> chunk, List<Long> chunkLines, PostImportResponse response) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String failure = saveChunk(chunk);
+        if (failure == null) {
+            response.accept(chunk.size());
+        } else {
+            chunkLines.forEach(line -> response.reject(line, failure, properties.getBatch().getMaxReportedFailures()));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private String saveChunk(List<Post> posts) {
+        int shard = shards.nextShard();
+        try {
+            shards.assignIds(shard, posts);
+            stats.write(shard, () -> {
+                shards.on(shard, () -> transactionTemplate.execute(status -> postRepo.saveAll(posts)));
+                stats.addAll(shard, posts);
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            return NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        }
+        recentWrites.addAll(posts);
+        idFilter.addAll(posts);
+        searchIndex.addAll(posts);
+        changeFeed.publishAll(PostChange.Type.CREATED, posts);
+        return null;
+    }
+
+    /**
+     * Keyset cursor over one shard, fetching {@link PostRepo#STREAM_FETCH_SIZE} posts per query.
+     */
+    private final class ShardExport {
+        private final int shard;
+        private List<Post> page = List.of();
+        private int position = -1;
+        private boolean last;
+
+        ShardExport(int shard) {
+            this.shard = shard;
+        }
+
+        Post head() {
+            return page.get(position);
+        }
+
+        boolean advance() {
+            if (++position < page.size()) {
+                return true;
+            }
+            if (last) {
+                return false;
+            }
+            PostCursor after = page.isEmpty()
+                    ? new PostCursor(MIN_TIMESTAMP, Integer.MIN_VALUE)
+                    : PostCursor.of(page.get(page.size() - 1));
+            page = shards.on(shard, () -> postRepo.findPageAfter(after.timestamp(), after.id(), MAX_TIMESTAMP,
+                    PageRequest.of(0, PostRepo.STREAM_FETCH_SIZE)));
+            last = page.size() < PostRepo.STREAM_FETCH_SIZE;
+            position = 0;
+            return !page.isEmpty();
+        }
+    }
+
+    /**
+     * Splits NDJSON into lines like {@link java.io.BufferedReader#readLine}, but holds at most {@code maxLength}
+     * characters of a line, so a single huge line cannot exhaust the heap. The rest of a longer line is skipped
+     * and the line marked {@link #truncated}.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * The next line without its terminator, or null at the end of the input.
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean empty = true;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return empty ? null : finish();
+                    }
+                }
+                empty = false;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                int room = maxLength - line.length();
+                if (position - start > room) {
+                    truncated = true;
+                }
+                line.append(buffer, start, Math.min(position - start, Math.max(room, 0)));
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        private String finish() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                line.setLength(end - 1);
+            }
+            return line.toString();
+        }
     }
 }
@@ -0,0 +1,141 @@
+package com.rklymus.ittask;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps post ids to shards and allocates ids that map back to the shard they were allocated on.
+ * <p>
+ * Ids come in blocks of {@link #BLOCK_SIZE}. A shard takes the next value of its own {@code post_seq} as the
+ * high part {@code hi} and owns global block {@code hi * shards + shard}, so {@code (id / BLOCK_SIZE) % shards}
+ * recovers the shard without any lookup. With no shards configured everything runs on the single data source
+ * and ids come from the sequence as before.
+ */
+@Component
+@Profile("!reactive")
+public class PostShards {
+
+    static final int BLOCK_SIZE = 50;
+
+    private final PostProperties properties;
+    private final ObjectProvider<ShardRoutingDataSource> routingDataSource;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Block[] blocks;
+
+    public PostShards(PostProperties properties, ObjectProvider<ShardRoutingDataSource> routingDataSource,
+                      ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.properties = properties;
+        this.routingDataSource = routingDataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        blocks = new Block[count()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new Block();
+        }
+    }
+
+    public boolean enabled() {
+        return !properties.getSharding().getShards().isEmpty();
+    }
+
+    public int count() {
+        return Math.max(1, properties.getSharding().getShards().size());
+    }
+
+    public int shardOf(Integer id) {
+        return enabled() ? Math.floorMod(id / BLOCK_SIZE, count()) : 0;
+    }
+
+    /**
+     * Round-robin shard for new posts.
+     */
+    public int nextShard() {
+        return Math.floorMod(next.getAndIncrement(), count());
+    }
+
+    public <T> T on(int shard, Supplier<T> action) {
+        return enabled() ? ShardRoutingDataSource.on(shard, action) : action.get();
+    }
+
+    public <T> T onShardOf(Integer id, Supplier<T> action) {
+        return on(shardOf(id), action);
+    }
+
+    /**
+     * Runs {@code action} once per shard and returns the results in shard order.
+     */
+    public <T> List<T> onEach(IntFunction<T> action) {
+        List<T> results = new ArrayList<>(count());
+        for (int shard = 0; shard < count(); shard++) {
+            int target = shard;
+            results.add(on(target, () -> action.apply(target)));
+        }
+        return results;
+    }
+
+    public Map<Integer, List<Integer>> groupByShard(Collection<Integer> ids) {
+        Map<Integer, List<Integer>> groups = new HashMap<>();
+        for (Integer id : ids) {
+            groups.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return groups;
+    }
+
+    /**
+     * Gives every post an id owned by {@code shard}; a no-op without sharding, where the sequence assigns ids.
+     */
+    public void assignIds(int shard, Collection<Post> posts) {
+        if (enabled()) {
+            posts.forEach(post -> post.setId(allocate(shard)));
+        }
+    }
+
+    private int allocate(int shard) {
+        Block block = blocks[shard];
+        block.lock.lock();
+        try {
+            if (block.next == block.end) {
+                long hi = (nextSequenceValue(shard) - 1) / BLOCK_SIZE;
+                long start = (hi * count() + shard) * BLOCK_SIZE;
+                if (start + BLOCK_SIZE > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Post ids exhausted on shard " + shard);
+                }
+                block.next = (int) Math.max(start, 1);
+                block.end = (int) (start + BLOCK_SIZE);
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    private long nextSequenceValue(int shard) {
+        String sql = entityManagerFactory.getObject().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(Post.SEQUENCE);
+        Long value = new JdbcTemplate(routingDataSource.getObject().shard(shard)).queryForObject(sql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("No value from " + Post.SEQUENCE + " on shard " + shard);
+        }
+        return value;
+    }
+
+    private static final class Block {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int next;
+        private int end;
+    }
+}
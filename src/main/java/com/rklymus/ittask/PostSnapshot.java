@@ -0,0 +1,385 @@
+package com.rklymus.ittask;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped snapshot of the hottest cached posts, written periodically and on shutdown. After a restart
+ * {@link PostService#get} serves snapshot entries straight away, without caching them, while a background pass
+ * checks each one against the current version, moves the fresh ones into the cache and then drops the snapshot.
+ * Until an entry has been checked it may be as stale as the snapshot itself; local writes invalidate it
+ * immediately.
+ * <p>
+ * Layout: a header (magic, format, count, CRC32C of everything after the header), an index of {@code (id, offset)}
+ * pairs sorted by id, then one record per post: version, timestamp, modified, title and content. A file that fails
+ * the checksum or whose index and records do not fit together is ignored, and reads go to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!reactive")
+public class PostSnapshot {
+
+    private static final int MAGIC = 0x504F5354;
+    private static final int FORMAT = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final PostProperties properties;
+    private final CacheManager cacheManager;
+    private final PostRepo postRepo;
+    private final PostShards shards;
+
+    private volatile Mapped mapped;
+    private volatile boolean closing;
+
+    public Post get(Integer id) {
+        Mapped snapshot = mapped;
+        return snapshot != null ? snapshot.get(id) : null;
+    }
+
+    public void invalidate(Integer id) {
+        Mapped snapshot = mapped;
+        if (snapshot != null) {
+            snapshot.stale.add(id);
+        }
+    }
+
+    public boolean isLoaded() {
+        return mapped != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (properties.getSnapshot().isEnabled() && load()) {
+            Thread thread = new Thread(this::verify, "post-snapshot-verify");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${post.snapshot.interval:PT5M}",
+            initialDelayString = "${post.snapshot.interval:PT5M}")
+    public void writePeriodically() {
+        if (properties.getSnapshot().isEnabled()) {
+            write();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void writeOnShutdown() {
+        closing = true;
+        if (properties.getSnapshot().isEnabled()) {
+            write();
+        }
+    }
+
+    /**
+     * Maps the snapshot file, if there is a readable one. Returns whether a snapshot is now being served.
+     */
+    public synchronized boolean load() {
+        Path path = properties.getSnapshot().getPath();
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                log.warn("Ignoring unrecognised post snapshot {}", path);
+                return false;
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES > buffer.limit()
+                    || buffer.getInt(12) != checksum(buffer)) {
+                log.warn("Ignoring corrupt post snapshot {}", path);
+                return false;
+            }
+            int[] ids = new int[count];
+            int[] offsets = new int[count];
+            int end = HEADER_BYTES + count * INDEX_ENTRY_BYTES;
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getInt(HEADER_BYTES + i * INDEX_ENTRY_BYTES);
+                offsets[i] = buffer.getInt(HEADER_BYTES + i * INDEX_ENTRY_BYTES + 4);
+                end = offsets[i] == end && (i == 0 || ids[i] > ids[i - 1]) ? recordEnd(buffer, end) : -1;
+                if (end < 0) {
+                    log.warn("Ignoring post snapshot {} with an invalid entry at index {}", path, i);
+                    return false;
+                }
+            }
+            if (end != buffer.limit()) {
+                log.warn("Ignoring post snapshot {} with trailing bytes", path);
+                return false;
+            }
+            mapped = new Mapped(buffer, ids, offsets);
+            log.info("Serving {} posts from snapshot {}", count, path);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not load post snapshot {}", path, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Checks every snapshot entry against the database: current ones are put in the cache, changed or deleted
+     * ones are evicted. The snapshot is released once all entries have been checked.
+     */
+    public void verify() {
+        Mapped snapshot = mapped;
+        if (snapshot == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Cache cache = cacheManager.getCache(PostService.CACHE);
+        int chunkSize = properties.getSnapshot().getVerifyChunkSize();
+        int fresh = 0;
+        try {
+            int[] ids = snapshot.ids;
+            for (int from = 0; from < ids.length && !closing; from += chunkSize) {
+                List<Integer> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + chunkSize)).boxed().toList();
+                Map<Integer, Long> versions = new HashMap<>();
+                shards.groupByShard(chunk).forEach((shard, shardIds) -> shards.on(shard,
+                        () -> postRepo.findVersionsByIdIn(shardIds)).forEach(v -> versions.put(v.id(), v.version())));
+                for (Integer id : chunk) {
+                    Post post = snapshot.get(id);
+                    if (post != null && versions.containsKey(id)
+                            && Objects.equals(versions.get(id), post.getVersion())) {
+                        cache.putIfAbsent(id, post);
+                        fresh++;
+                    } else {
+                        snapshot.stale.add(id);
+                        cache.evict(id);
+                    }
+                    // A write that raced the check marks the entry stale after we cached it.
+                    if (snapshot.stale.contains(id)) {
+                        cache.evict(id);
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Post snapshot verification failed; falling back to the database", ex);
+        } finally {
+            mapped = null;
+        }
+        log.info("Post snapshot verified in {} ms: {} of {} entries current",
+                (System.nanoTime() - start) / 1_000_000, fresh, snapshot.ids.length);
+    }
+
+    /**
+     * Writes the hottest cached posts to the snapshot file, replacing it atomically.
+     */
+    public synchronized int write() {
+        List<Post> posts = hotSet(properties.getSnapshot().getMaxEntries());
+        if (posts.isEmpty()) {
+            return 0;
+        }
+        posts.sort(Comparator.comparing(Post::getId));
+        List<byte[]> records = posts.stream().map(PostSnapshot::encode).toList();
+        long size = HEADER_BYTES + (long) posts.size() * INDEX_ENTRY_BYTES
+                + records.stream().mapToLong(record -> record.length).sum();
+        if (size > Integer.MAX_VALUE) {
+            log.warn("Post snapshot of {} bytes is too large; not written", size);
+            return 0;
+        }
+        Path path = properties.getSnapshot().getPath().toAbsolutePath();
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(FORMAT).putInt(posts.size()).putInt(0);
+                int offset = HEADER_BYTES + posts.size() * INDEX_ENTRY_BYTES;
+                for (int i = 0; i < posts.size(); i++) {
+                    buffer.putInt(posts.get(i).getId()).putInt(offset);
+                    offset += records.get(i).length;
+                }
+                records.forEach(buffer::put);
+                buffer.putInt(12, checksum(buffer));
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write post snapshot " + path, ex);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ex) {
+                    log.warn("Could not delete {}", temp, ex);
+                }
+            }
+        }
+        log.info("Wrote {} posts ({} bytes) to snapshot {}", posts.size(), size, path);
+        return posts.size();
+    }
+
+    private List<Post> hotSet(int limit) {
+        if (!(cacheManager.getCache(PostService.CACHE) instanceof CaffeineCache cache)) {
+            return new ArrayList<>();
+        }
+        var nativeCache = cache.getNativeCache();
+        Map<Object, Object> entries = nativeCache.policy().eviction()
+                .map(eviction -> eviction.hottest(limit))
+                .orElse(nativeCache.asMap());
+        List<Post> posts = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Object value : entries.values()) {
+            if (value instanceof Post post && post.getId() != null && posts.size() < limit) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    private static byte[] encode(Post post) {
+        byte[] title = post.getTitle() != null ? post.getTitle().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] content = post.getContent() != null ? post.getContent().getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 12 + 12 + 4 + length(title) + 4 + length(content));
+        buffer.putLong(post.getVersion() != null ? post.getVersion() : -1);
+        putTime(buffer, post.getTimestamp());
+        putTime(buffer, post.getModified());
+        putBytes(buffer, title);
+        putBytes(buffer, content);
+        return buffer.array();
+    }
+
+    /**
+     * CRC32C of everything after the header.
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES).limit(buffer.capacity()));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Where the record starting at {@code offset} ends, or -1 if it does not fit in the buffer or holds a value
+     * {@link #decode} would reject.
+     */
+    private static int recordEnd(ByteBuffer buffer, int offset) {
+        long position = (long) offset + 8;
+        for (int time = 0; time < 2; time++) {
+            if (position + 12 > buffer.limit()) {
+                return -1;
+            }
+            long seconds = buffer.getLong((int) position);
+            int nanos = buffer.getInt((int) position + 8);
+            if (nanos < 0 || nanos > 999_999_999 || seconds != NULL_TIME
+                    && (seconds < LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC)
+                    || seconds > LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC))) {
+                return -1;
+            }
+            position += 12;
+        }
+        for (int string = 0; string < 2; string++) {
+            if (position + 4 > buffer.limit()) {
+                return -1;
+            }
+            int length = buffer.getInt((int) position);
+            position += 4 + Math.max(length, 0);
+            if (length < -1 || position > buffer.limit()) {
+                return -1;
+            }
+        }
+        return (int) position;
+    }
+
+    private static Post decode(ByteBuffer buffer, int id, int offset) {
+        ByteBuffer record = buffer.duplicate().position(offset);
+        Post post = new Post();
+        post.setId(id);
+        long version = record.getLong();
+        post.setVersion(version >= 0 ? version : null);
+        post.setTimestamp(getTime(record));
+        post.setModified(getTime(record));
+        post.setTitle(getString(record));
+        post.setContent(getString(record));
+        return post;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : NULL_TIME);
+        buffer.putInt(time != null ? time.getNano() : 0);
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds != NULL_TIME ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes != null ? bytes.length : -1);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Mapped {
+        private final MappedByteBuffer buffer;
+        private final int[] ids;
+        private final int[] offsets;
+        private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+
+        Mapped(MappedByteBuffer buffer, int[] ids, int[] offsets) {
+            this.buffer = buffer;
+            this.ids = ids;
+            this.offsets = offsets;
+        }
+
+        Post get(Integer id) {
+            if (id == null || stale.contains(id)) {
+                return null;
+            }
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? decode(buffer, id, offsets[index]) : null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.rklymus.ittask;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Post count and per-hour/per-day creation histograms, maintained on every create and delete so that reading
+ * them never runs a {@code count(*) ... group by}. Counters are {@link LongAdder}s, which stripe concurrent
+ * increments over separate cells, and buckets live in skip lists, so reads walk them in order without a lock.
+ * <p>
+ * The aggregates are seeded from the database on startup and periodically replaced by a fresh scan, which
+ * corrects drift such as writes made by other instances. The scan of each shard reads a repeatable-read snapshot,
+ * and the new aggregates take exactly the writes that snapshot misses: those recorded after it was pinned. To
+ * tell the two apart, a write holds its shard's fence, shared, from before its commit until it is recorded, and
+ * the snapshot is pinned under the fence held exclusively. Writes therefore only wait for one primary key
+ * lookup per shard, not for the scan.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class PostStats {
+
+    private final PostRepo postRepo;
+    private final PostProperties properties;
+    private final PostShards shards;
+    private final TransactionTemplate snapshot;
+    private final ReadWriteLock[] fences;
+
+    private volatile Aggregates current;
+    private volatile Aggregates building;
+    private volatile LocalDateTime reconciledAt;
+
+    public PostStats(PostRepo postRepo, PostProperties properties, PostShards shards,
+                     TransactionTemplate transactionTemplate) {
+        this.postRepo = postRepo;
+        this.properties = properties;
+        this.shards = shards;
+        snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        fences = new ReadWriteLock[shards.count()];
+        for (int i = 0; i < fences.length; i++) {
+            fences[i] = new ReentrantReadWriteLock();
+        }
+        current = new Aggregates(fences.length);
+    }
+
+    /**
+     * Runs a write to {@code shard} that commits and then records its posts with {@link #add}, {@link #addAll}
+     * or {@link #remove} before returning.
+     */
+    public <T> T write(int shard, Supplier<T> write) {
+        fences[shard].readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            fences[shard].readLock().unlock();
+        }
+    }
+
+    public void add(int shard, LocalDateTime timestamp) {
+        record(shard, timestamp, 1);
+    }
+
+    public void addAll(int shard, List<Post> posts) {
+        posts.forEach(post -> add(shard, post.getTimestamp()));
+    }
+
+    public void remove(int shard, LocalDateTime timestamp) {
+        record(shard, timestamp, -1);
+    }
+
+    public PostStatsResponse snapshot() {
+        Aggregates aggregates = current;
+        return new PostStatsResponse(aggregates.total.sum(), buckets(aggregates.hours), buckets(aggregates.days),
+                reconciledAt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (properties.getStats().isReconcile()) {
+            Thread thread = new Thread(this::reconcile, "post-stats-reconcile");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${post.stats.reconcile-interval:PT10M}",
+            initialDelayString = "${post.stats.reconcile-interval:PT10M}")
+    public void reconcilePeriodically() {
+        if (properties.getStats().isReconcile()) {
+            reconcile();
+        }
+    }
+
+    public synchronized void reconcile() {
+        long start = System.nanoTime();
+        Aggregates fresh = new Aggregates(fences.length);
+        building = fresh;
+        Aggregates previous;
+        try {
+            ReplicaRoutingDataSource.onPrimary(() -> shards.onEach(shard -> snapshot.execute(status -> {
+                fences[shard].writeLock().lock();
+                try {
+                    // The first read pins the snapshot; every write recorded before this is in it.
+                    postRepo.findMinId();
+                    fresh.scanned[shard] = true;
+                } finally {
+                    fences[shard].writeLock().unlock();
+                }
+                postRepo.countByHour().forEach(count -> fresh.add(count.start(), count.count()));
+                return null;
+            })));
+            previous = current;
+            current = fresh;
+            reconciledAt = LocalDateTime.now();
+        } finally {
+            building = null;
+        }
+        long total = fresh.total.sum();
+        log.info("Post stats reconciled with {} posts (drift {}) in {} ms", total, total - previous.total.sum(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads {@code building} before {@code current}: a reconcile swaps {@code current} before clearing
+     * {@code building}, so the write lands in the new aggregates exactly once however the two interleave.
+     */
+    private void record(int shard, LocalDateTime timestamp, long delta) {
+        Aggregates next = building;
+        Aggregates aggregates = current;
+        aggregates.add(timestamp, delta);
+        if (next != null && next != aggregates && next.scanned[shard]) {
+            next.add(timestamp, delta);
+        }
+    }
+
+    private static List<PostStatsResponse.Bucket> buckets(ConcurrentSkipListMap<LocalDateTime, LongAdder> counts) {
+        List<PostStatsResponse.Bucket> buckets = new ArrayList<>(counts.size());
+        for (Map.Entry<LocalDateTime, LongAdder> entry : counts.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count != 0) {
+                buckets.add(new PostStatsResponse.Bucket(entry.getKey(), count));
+            }
+        }
+        return buckets;
+    }
+
+    private static final class Aggregates {
+        /**
+         * Shards whose snapshot is pinned, written and read under the shard's fence.
+         */
+        private final boolean[] scanned;
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentSkipListMap<LocalDateTime, LongAdder> hours = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<LocalDateTime, LongAdder> days = new ConcurrentSkipListMap<>();
+
+        Aggregates(int shards) {
+            scanned = new boolean[shards];
+        }
+
+        void add(LocalDateTime timestamp, long delta) {
+            total.add(delta);
+            if (timestamp != null) {
+                hours.computeIfAbsent(timestamp.truncatedTo(ChronoUnit.HOURS), hour -> new LongAdder()).add(delta);
+                days.computeIfAbsent(timestamp.truncatedTo(ChronoUnit.DAYS), day -> new LongAdder()).add(delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.rklymus.ittask;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PostStatsResponse {
+    private long total;
+    private List<Bucket> hourly;
+    private List<Bucket> daily;
+    private LocalDateTime reconciledAt;
+
+    @Data
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDateTime start;
+        private long count;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rklymus.ittask;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a post that leaves the content column unread.
+ */
+public record PostSummary(Integer id, String title, LocalDateTime timestamp) {
+}
@@ -0,0 +1,4 @@
+package com.rklymus.ittask;
+
+public record PostVersion(Integer id, Long version) {
+}
@@ -0,0 +1,7 @@
+package com.rklymus.ittask;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(Integer id) {
+        super("Entity with id=" + id + " does not match If-Match");
+    }
+}
@@ -0,0 +1,47 @@
+package com.rklymus.ittask;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Ids written within the read-your-writes window. Reads of those ids go to the primary, so a replica that
+ * has not caught up cannot serve (or get cached) a stale post. Inactive when no replicas are configured.
+ */
+@Component
+public class RecentWrites {
+
+    private final boolean enabled;
+    private final Cache<Integer, Boolean> ids;
+
+    public RecentWrites(PostProperties properties) {
+        PostProperties.Datasource config = properties.getDatasource();
+        enabled = !config.getReplicas().isEmpty();
+        ids = Caffeine.newBuilder().expireAfterWrite(config.getReadYourWritesWindow()).build();
+    }
+
+    public void add(Integer id) {
+        if (enabled) {
+            ids.put(id, Boolean.TRUE);
+        }
+    }
+
+    public void addAll(Collection<Post> posts) {
+        posts.forEach(post -> add(post.getId()));
+    }
+
+    public boolean contains(Integer id) {
+        return enabled && ids.getIfPresent(id) != null;
+    }
+
+    public boolean containsAny(Collection<Integer> candidates) {
+        return enabled && candidates.stream().anyMatch(this::contains);
+    }
+
+    public <T> T read(Integer id, Supplier<T> action) {
+        return contains(id) ? ReplicaRoutingDataSource.onPrimary(action) : action.get();
+    }
+}
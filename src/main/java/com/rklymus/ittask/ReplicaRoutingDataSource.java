@@ -0,0 +1,164 @@
+package com.rklymus.ittask;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections otherwise. Has to sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the connection is
+ * fetched after the transaction's read-only flag is known. A replica that fails to connect is skipped until the
+ * next successful health check; with no healthy replica, reads fall back to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final PostProperties.Datasource.Selection selection;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    PostProperties.Datasource.Selection selection, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(replica -> new Replica(replica, routes(registry, replica.getPoolName()))).toList();
+        this.selection = selection;
+        this.primaryRoutes = routes(registry, "primary");
+    }
+
+    /**
+     * Runs {@code action} with every connection it opens taken from the primary, for reads that must observe a
+     * write the replicas may not have applied yet.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (Boolean.TRUE.equals(PRIMARY_FORCED.get())) {
+            return action.get();
+        }
+        PRIMARY_FORCED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_FORCED.get() == null) {
+            Replica replica;
+            while ((replica = select()) != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.routes.increment();
+                    return connection;
+                } catch (SQLException | RuntimeException ex) {
+                    replica.markDown(ex);
+                }
+            }
+        }
+        primaryRoutes.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Routing data source does not support per-call credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${post.datasource.health-check-interval:PT10S}",
+            initialDelayString = "${post.datasource.health-check-interval:PT10S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid((int) Math.max(1, replica.dataSource.getValidationTimeout() / 1000))) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                replica.markDown(ex);
+            }
+        }
+    }
+
+    public boolean isHealthy(String poolName) {
+        return replicas.stream().anyMatch(replica -> replica.dataSource.getPoolName().equals(poolName) && replica.healthy);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Replica select() {
+        Replica selected = null;
+        if (selection == PostProperties.Datasource.Selection.LEAST_CONNECTIONS) {
+            for (Replica replica : replicas) {
+                if (replica.healthy && (selected == null || replica.activeConnections() < selected.activeConnections())) {
+                    selected = replica;
+                }
+            }
+            return selected;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Counter routes(MeterRegistry registry, String target) {
+        return Counter.builder("post.datasource.routes")
+                .description("Connections handed out per target data source")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private final Counter routes;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource, Counter routes) {
+            this.dataSource = dataSource;
+            this.routes = routes;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                log.info("Replica {} is back up", dataSource.getPoolName());
+            }
+            healthy = true;
+        }
+
+        void markDown(Exception cause) {
+            if (healthy) {
+                log.warn("Replica {} is down, routing its reads to the primary", dataSource.getPoolName(), cause);
+            }
+            healthy = false;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.rklymus.ittask;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -13,27 +17,84 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@RequiredArgsConstructor
+@Profile("!reactive")
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Object> handleEntityNotFoundException(EntityNotFoundException ex) {
+        countError("not_found");
         ApiError apiError = new ApiError();
         apiError.setMessage(ex.getMessage());
         apiError.setStatus(HttpStatus.NOT_FOUND.value());
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException ex) {
+        countError("invalid_cursor");
+        ApiError apiError = new ApiError();
+        apiError.setMessage(ex.getMessage());
+        apiError.setStatus(HttpStatus.BAD_REQUEST.value());
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<Object> handleTooManyIdsException(TooManyIdsException ex) {
+        countError("too_many_ids");
+        ApiError apiError = new ApiError();
+        apiError.setMessage(ex.getMessage());
+        apiError.setStatus(HttpStatus.BAD_REQUEST.value());
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ChangeFeedGapException.class)
+    public ResponseEntity<Object> handleChangeFeedGapException(ChangeFeedGapException ex) {
+        countError("resync");
+        ApiError apiError = new ApiError();
+        apiError.setMessage(ex.getMessage());
+        apiError.setStatus(HttpStatus.GONE.value());
+        return new ResponseEntity<>(apiError, HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException ex) {
+        countError("precondition_failed");
+        ApiError apiError = new ApiError();
+        apiError.setMessage(ex.getMessage());
+        apiError.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        return new ResponseEntity<>(apiError, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Object> handleOverloadedException(OverloadedException ex) {
+        countError("overloaded");
+        ApiError apiError = new ApiError();
+        apiError.setMessage(ex.getMessage());
+        apiError.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(apiError);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
                                                                   HttpHeaders headers,
                                                                   HttpStatusCode status,
                                                                   WebRequest request) {
+        countError("validation");
         ApiError apiError = new ApiError();
         apiError.setMessage(ex.getMessage());
         apiError.setStatus(HttpStatus.FORBIDDEN.value());
         return new ResponseEntity<>(apiError, HttpStatus.FORBIDDEN);
     }
 
+    private void countError(String type) {
+        meterRegistry.ifAvailable(registry -> registry.counter("post.errors", "type", type).increment());
+    }
+
     @Data
     static class ApiError {
         private int status;
@@ -0,0 +1,61 @@
+package com.rklymus.ittask;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with one pool per entry of {@code post.sharding.shards}. Cannot be combined
+ * with {@code post.datasource.replicas}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "post.sharding", name = "shards[0].url")
+@Profile("!reactive")
+public class ShardConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(PostProperties properties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        List<PostProperties.Sharding.Shard> config = properties.getSharding().getShards();
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < config.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(config.get(i).getUrl())
+                    .username(config.get(i).getUsername())
+                    .password(config.get(i).getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardRoutingDataSource shardRoutingDataSource) {
+        ShardSchemaIntegrator integrator = new ShardSchemaIntegrator(shardRoutingDataSource.size());
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+}
@@ -0,0 +1,53 @@
+package com.rklymus.ittask;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate only applies {@code hbm2ddl} to the connection it boots with, which is shard 0. This repeats the
+ * configured schema action on every other shard, including the drop on close for {@code create-drop}.
+ */
+public class ShardSchemaIntegrator implements Integrator {
+
+    private final int shards;
+    private final List<ShardDrop> dropActions = new ArrayList<>();
+
+    public ShardSchemaIntegrator(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        for (int shard = 1; shard < shards; shard++) {
+            int target = shard;
+            ShardRoutingDataSource.on(target, () -> {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), action -> dropActions.add(new ShardDrop(target, action)));
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        for (ShardDrop drop : dropActions) {
+            ShardRoutingDataSource.on(drop.shard(), () -> {
+                drop.action().perform(serviceRegistry);
+                return null;
+            });
+        }
+        dropActions.clear();
+    }
+
+    private record ShardDrop(int shard, DelayedDropAction action) {
+    }
+}
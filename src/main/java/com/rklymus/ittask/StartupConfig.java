@@ -0,0 +1,20 @@
+package com.rklymus.ittask;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With {@code spring.main.lazy-initialization} on (the "aot" profile), only infrastructure outside the
+     * application, such as actuator endpoints and exporters, is deferred to first use. The post beans stay eager:
+     * they are the request path, and their scheduled and startup work only starts once they exist.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter applicationBeansEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && beanType.getPackageName().equals(ItTaskApplication.class.getPackageName());
+    }
+}
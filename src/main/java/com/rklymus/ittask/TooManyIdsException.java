@@ -0,0 +1,7 @@
+package com.rklymus.ittask;
+
+public class TooManyIdsException extends RuntimeException {
+    public TooManyIdsException(int count, int max) {
+        super("Requested " + count + " ids, at most " + max + " allowed");
+    }
+}
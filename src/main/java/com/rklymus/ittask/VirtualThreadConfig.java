@@ -0,0 +1,87 @@
+package com.rklymus.ittask;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling, and with it the blocking {@link PostService} and {@link PostRepo} work, plus MVC
+ * async tasks such as the NDJSON export on virtual threads once {@code post.threads.virtual=true}. Needs Java 21;
+ * the executor is looked up at runtime so the build itself stays on the project's Java version.
+ * <p>
+ * Connections stay bounded by the Hikari pool size and in-flight requests by {@link PostConcurrencyLimiter};
+ * virtual threads only remove the container thread cap. Code on the request path avoids holding monitors across
+ * blocking calls, so waiting on the pool or the database unmounts the virtual thread instead of pinning it.
+ * <p>
+ * The Java 21 path runs with {@code mvn -Pjava21 test}.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    static final String EXECUTOR = "virtualThreadExecutor";
+
+    /**
+     * Fails startup when {@code post.threads.virtual} is on but the executor was not set up, rather than
+     * quietly serving on platform threads. That happens with values such as {@code on}, which bind as true but
+     * do not match the condition, and in an AOT build made with the property off, whose conditions are fixed.
+     */
+    @Bean
+    public static SmartInitializingSingleton virtualThreadsInUse(Environment environment,
+                                                                 ListableBeanFactory beanFactory) {
+        return () -> {
+            if (environment.getProperty("post.threads.virtual", Boolean.class, false)
+                    && !beanFactory.containsBean(EXECUTOR)) {
+                throw new IllegalStateException("post.threads.virtual is on but virtual threads were not set up;"
+                        + " use the value true, and rebuild an AOT build with it");
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "post.threads", name = "virtual", havingValue = "true")
+    static class Enabled {
+
+        @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+        public ExecutorService virtualThreadExecutor() {
+            return newVirtualThreadPerTaskExecutor();
+        }
+
+        @Bean
+        public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler(
+                ExecutorService virtualThreadExecutor) {
+            return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+        }
+
+        @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+        public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+            return new TaskExecutorAdapter(virtualThreadExecutor);
+        }
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalStateException("post.threads.virtual needs Java 21 or later, running on "
+                    + Runtime.version(), ex);
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Could not create a virtual thread executor", ex);
+        }
+    }
+}
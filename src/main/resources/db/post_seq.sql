@@ -0,0 +1,7 @@
+-- Ids used to come from an IDENTITY column; they now come from post_seq, which Hibernate reads in blocks of 50
+-- (pooled optimizer: a sequence value v hands out the ids v - 49 .. v). Run this once against a schema created
+-- before the switch, on every shard, so that the first block lies entirely above the ids already taken.
+-- H2 syntax; databases that do not accept a query in START WITH need the value computed first.
+create sequence if not exists post_seq
+    start with (select coalesce(max(id), 0) + 50 from post)
+    increment by 50;
@@ -0,0 +1,76 @@
+package com.rklymus.ittask;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link PostController} on WebFlux. Covers paging, export, reads and single-post writes; the NDJSON variants
+ * stream with backpressure, so a slow client holds back the database reads instead of buffering them.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/post")
+@Profile("reactive")
+public class ReactivePostController {
+
+    private final ReactivePostService service;
+
+    @GetMapping
+    public Mono<PostPage> list(@RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestParam(required = false) Integer size) {
+        return service.list(cursor, from, to, size);
+    }
+
+    @GetMapping(produces = PostController.NDJSON)
+    public Flux<PostSummary> stream(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return service.stream(from, to);
+    }
+
+    @GetMapping(value = "/export", produces = PostController.NDJSON)
+    public Flux<Post> export() {
+        return service.exportAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Post>> get(@PathVariable Integer id) {
+        return service.get(id).map(ReactivePostController::withValidators);
+    }
+
+    @PostMapping
+    public Mono<Post> create(@RequestBody @Valid PostRequest request) {
+        return service.create(request);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Post>> update(@PathVariable Integer id,
+                                             @RequestBody @Valid PostRequest request,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(id, request, ifMatch != null ? Post.versionOf(id, ifMatch) : null)
+                .map(ReactivePostController::withValidators);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> delete(@PathVariable Integer id) {
+        return service.delete(id);
+    }
+
+    private static ResponseEntity<Post> withValidators(Post post) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(post.etag());
+        if (post.lastModified() != null) {
+            response.lastModified(post.lastModified());
+        }
+        return response.body(post);
+    }
+}
@@ -0,0 +1,179 @@
+package com.rklymus.ittask;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link PostRepo} on the same schema. Content goes through
+ * {@link PostContentConverter} both ways, and ids come from {@code post_seq} in blocks of
+ * {@link PostShards#BLOCK_SIZE}, read like Hibernate's pooled optimizer reads them, so both stacks can write to
+ * one database.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePostRepo {
+
+    private static final String COLUMNS = "id, title, content, timestamp, modified, version";
+
+    private final DatabaseClient client;
+    private final PostContentConverter contentConverter;
+    private final AtomicReference<IdBlock> ids = new AtomicReference<>(new IdBlock(1, 0));
+
+    public Mono<Post> findById(Integer id) {
+        return client.sql("select " + COLUMNS + " from post where id = :id")
+                .bind("id", id)
+                .map(this::toPost)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Integer id) {
+        return client.sql("select id from post where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("id", Integer.class))
+                .first()
+                .hasElement();
+    }
+
+    public Flux<Post> findPageAfter(LocalDateTime timestamp, Integer id, LocalDateTime to, int limit) {
+        return client.sql("select " + COLUMNS + " from post"
+                        + " where (timestamp, id) > (:timestamp, :id) and timestamp < :to"
+                        + " order by timestamp, id limit :limit")
+                .bind("timestamp", timestamp)
+                .bind("id", id)
+                .bind("to", to)
+                .bind("limit", limit)
+                .map(this::toPost)
+                .all();
+    }
+
+    public Flux<PostSummary> findSummaryPageAfter(LocalDateTime timestamp, Integer id, LocalDateTime to, int limit) {
+        return client.sql("select id, title, timestamp from post"
+                        + " where (timestamp, id) > (:timestamp, :id) and timestamp < :to"
+                        + " order by timestamp, id limit :limit")
+                .bind("timestamp", timestamp)
+                .bind("id", id)
+                .bind("to", to)
+                .bind("limit", limit)
+                .map(row -> new PostSummary(row.get("id", Integer.class), row.get("title", String.class),
+                        row.get("timestamp", LocalDateTime.class)))
+                .all();
+    }
+
+    /**
+     * Assigns the id, timestamps and initial version, then inserts the post.
+     */
+    public Mono<Post> insert(Post post) {
+        return nextId().flatMap(id -> {
+            LocalDateTime now = LocalDateTime.now();
+            post.setId(id);
+            post.setTimestamp(now);
+            post.setModified(now);
+            post.setVersion(0L);
+            return client.sql("insert into post (" + COLUMNS + ")"
+                            + " values (:id, :title, :content, :timestamp, :modified, :version)")
+                    .bind("id", id)
+                    .bind("title", post.getTitle())
+                    .bind("content", contentConverter.convertToDatabaseColumn(post.getContent()))
+                    .bind("timestamp", now)
+                    .bind("modified", now)
+                    .bind("version", 0L)
+                    .fetch()
+                    .rowsUpdated()
+                    .thenReturn(post);
+        });
+    }
+
+    /**
+     * Same contract as {@link PostRepo#updateFields}, except that {@code content} is encoded here.
+     */
+    public Mono<Long> updateFields(Integer id, String title, String content, Long version, LocalDateTime modified) {
+        String sql = "update post set title = coalesce(:title, title), content = coalesce(:content, content),"
+                + " modified = :modified, version = coalesce(version, 0) + 1 where id = :id"
+                + (version != null ? " and coalesce(version, 0) = :version" : "");
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql)
+                .bind("id", id)
+                .bind("modified", modified);
+        spec = title != null ? spec.bind("title", title) : spec.bindNull("title", String.class);
+        spec = content != null
+                ? spec.bind("content", contentConverter.convertToDatabaseColumn(content))
+                : spec.bindNull("content", byte[].class);
+        if (version != null) {
+            spec = spec.bind("version", version);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> removeById(Integer id) {
+        return client.sql("delete from post where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Post toPost(Readable row) {
+        Post post = new Post();
+        post.setId(row.get("id", Integer.class));
+        post.setTitle(row.get("title", String.class));
+        post.setContent(contentConverter.convertToEntityAttribute(bytes(row.get("content", ByteBuffer.class))));
+        post.setTimestamp(row.get("timestamp", LocalDateTime.class));
+        post.setModified(row.get("modified", LocalDateTime.class));
+        post.setVersion(row.get("version", Long.class));
+        return post;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Takes the next id from the current block, or fetches a new block. Racing fetches each get their own
+     * sequence value, so they only waste the rest of a block.
+     */
+    private Mono<Integer> nextId() {
+        return Mono.defer(() -> {
+            IdBlock block = ids.get();
+            int id = block.next.getAndIncrement();
+            if (id <= block.last) {
+                return Mono.just(id);
+            }
+            return client.sql("select next value for " + Post.SEQUENCE)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        if (hi > Integer.MAX_VALUE) {
+                            throw new IllegalStateException("Post ids exhausted");
+                        }
+                        IdBlock fresh = new IdBlock((int) Math.max(1, hi - PostShards.BLOCK_SIZE + 1), hi.intValue());
+                        int first = fresh.next.getAndIncrement();
+                        ids.set(fresh);
+                        return first;
+                    });
+        });
+    }
+
+    private static final class IdBlock {
+        private final AtomicInteger next;
+        private final int last;
+
+        IdBlock(int first, int last) {
+            this.next = new AtomicInteger(first);
+            this.last = last;
+        }
+    }
+}
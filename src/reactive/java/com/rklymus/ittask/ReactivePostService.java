@@ -0,0 +1,102 @@
+package com.rklymus.ittask;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * {@link PostService} semantics for the reactive stack: same paging, cursors, conditional writes and errors, on
+ * a single database and without the cache, id filter or search index.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePostService {
+
+    private final ReactivePostRepo postRepo;
+    private final PostProperties properties;
+    private final TransactionalOperator transactions;
+
+    public Mono<Post> get(Integer id) {
+        return postRepo.findById(id).switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)));
+    }
+
+    public Mono<PostPage> list(String cursor, LocalDateTime from, LocalDateTime to, Integer size) {
+        PostProperties.Page page = properties.getPage();
+        int limit = Math.max(1, Math.min(size != null ? size : page.getDefaultSize(), page.getMaxSize()));
+        return Mono.fromSupplier(() -> cursor != null ? PostCursor.decode(cursor) : first(from))
+                .flatMap(after -> postRepo.findSummaryPageAfter(after.timestamp(), after.id(), last(to), limit + 1)
+                        .collectList())
+                .map(posts -> {
+                    if (posts.size() <= limit) {
+                        return new PostPage(posts, null);
+                    }
+                    List<PostSummary> items = posts.subList(0, limit);
+                    return new PostPage(items, PostCursor.of(items.get(limit - 1)).encode());
+                });
+    }
+
+    /**
+     * Every summary in {@code [from, to)}, read page by page as the subscriber requests more.
+     */
+    public Flux<PostSummary> stream(LocalDateTime from, LocalDateTime to) {
+        return keyset(after -> postRepo.findSummaryPageAfter(after.timestamp(), after.id(), last(to),
+                PostRepo.STREAM_FETCH_SIZE), PostCursor::of, first(from));
+    }
+
+    public Flux<Post> exportAll() {
+        return keyset(after -> postRepo.findPageAfter(after.timestamp(), after.id(), PostService.MAX_TIMESTAMP,
+                PostRepo.STREAM_FETCH_SIZE), PostCursor::of, first(null));
+    }
+
+    public Mono<Post> create(PostRequest request) {
+        return postRepo.insert(request.toEntity());
+    }
+
+    public Mono<Post> update(Integer id, PostRequest request, Long expectedVersion) {
+        return postRepo.updateFields(id, request.getTitle(), request.getContent(), expectedVersion, LocalDateTime.now())
+                .flatMap(updated -> updated > 0 ? get(id) : notUpdated(id, expectedVersion))
+                .as(transactions::transactional);
+    }
+
+    public Mono<Void> delete(Integer id) {
+        return postRepo.removeById(id)
+                .flatMap(deleted -> deleted > 0 ? Mono.<Void>empty() : Mono.error(new EntityNotFoundException(id)));
+    }
+
+    private Mono<Post> notUpdated(Integer id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new EntityNotFoundException(id));
+        }
+        return postRepo.existsById(id).flatMap(exists -> Mono.error(exists
+                ? new PreconditionFailedException(id)
+                : new EntityNotFoundException(id)));
+    }
+
+    /**
+     * Pages through {@code page} by keyset, fetching the next page only once the previous one has been consumed.
+     */
+    private static <T> Flux<T> keyset(Function<PostCursor, Flux<T>> page, Function<T, PostCursor> cursorOf,
+                                      PostCursor first) {
+        return page.apply(first).collectList()
+                .expand(items -> items.size() < PostRepo.STREAM_FETCH_SIZE
+                        ? Mono.empty()
+                        : page.apply(cursorOf.apply(items.get(items.size() - 1))).collectList())
+                .concatMapIterable(Function.identity());
+    }
+
+    private static PostCursor first(LocalDateTime from) {
+        return new PostCursor(from != null ? from : PostService.MIN_TIMESTAMP, Integer.MIN_VALUE);
+    }
+
+    private static LocalDateTime last(LocalDateTime to) {
+        return to != null ? to : PostService.MAX_TIMESTAMP;
+    }
+}
@@ -0,0 +1,14 @@
+-- Same schema Hibernate generates for the servlet stack, so either stack can run against one database.
+create sequence if not exists post_seq start with 1 increment by 50;
+
+create table if not exists post (
+    id integer not null,
+    content blob,
+    modified timestamp(6),
+    timestamp timestamp(6),
+    title varchar(255),
+    version bigint,
+    primary key (id)
+);
+
+create index if not exists idx_post_timestamp_id on post (timestamp, id);
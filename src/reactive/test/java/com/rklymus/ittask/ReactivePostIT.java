@@ -0,0 +1,214 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+public class ReactivePostIT {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactivePostService service;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @BeforeEach
+    void init() {
+        databaseClient.sql("delete from post").fetch().rowsUpdated().block();
+    }
+
+    @Test
+    void servletStackIsNotLoaded() {
+        assertFalse(context.containsBean("postService"));
+        assertFalse(context.containsBean("postController"));
+        assertNull(context.getBeanProvider(PostRepo.class).getIfAvailable());
+    }
+
+    @Test
+    void create_ThenGet_WithValidators() {
+        Post created = create("Title", "Content");
+
+        client.get().uri("/post/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, created.etag())
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Title")
+                .jsonPath("$.content").isEqualTo("Content")
+                .jsonPath("$.version").isEqualTo(0);
+    }
+
+    @Test
+    void create_LargeContent_RoundTrips() {
+        String content = "Lorem ipsum dolor sit amet. ".repeat(200);
+        Post created = create("Title", content);
+
+        client.get().uri("/post/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content").isEqualTo(content);
+        ByteBuffer stored = databaseClient.sql("select content from post where id = :id")
+                .bind("id", created.getId())
+                .map(row -> row.get("content", ByteBuffer.class))
+                .one()
+                .block();
+        assertNotNull(stored);
+        assertEquals(PostContentConverter.DEFLATED, stored.get(0));
+    }
+
+    @Test
+    void create_Invalid_Forbidden() {
+        client.post().uri("/post")
+                .bodyValue(Map.of("title", "Title"))
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(403);
+    }
+
+    @Test
+    void get_Missing_NotFound() {
+        client.get().uri("/post/{id}", Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("Entity with id=" + Integer.MAX_VALUE + " not found");
+    }
+
+    @Test
+    void update_IfMatch() {
+        Post created = create("Title", "Content");
+
+        client.put().uri("/post/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, created.etag())
+                .bodyValue(Map.of("title", "Updated", "content", "Updated content"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + created.getId() + "-1\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Updated");
+        client.put().uri("/post/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, created.etag())
+                .bodyValue(Map.of("title", "Stale", "content", "Stale content"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.put().uri("/post/{id}", Integer.MAX_VALUE)
+                .bodyValue(Map.of("title", "Title", "content", "Content"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void delete_ThenNotFound() {
+        Post created = create("Title", "Content");
+
+        client.delete().uri("/post/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk();
+        client.delete().uri("/post/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/post/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void list_PagesByCursor() {
+        for (int i = 0; i < 5; i++) {
+            create("Title " + i, "Content " + i);
+        }
+
+        PostPage first = client.get().uri("/post?size=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PostPage.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(first);
+        assertEquals(3, first.getItems().size());
+        assertNotNull(first.getNext());
+        client.get().uri("/post?size=3&cursor={cursor}", first.getNext())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[0].title").isEqualTo("Title 3")
+                .jsonPath("$.next").doesNotExist();
+        client.get().uri("/post?cursor=invalid")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void stream_And_Export_PageThroughEveryRow() {
+        int rows = PostRepo.STREAM_FETCH_SIZE * 2 + 10;
+        Flux.range(0, rows).concatMap(i -> service.create(request("Title " + i, "Content " + i))).blockLast();
+
+        Flux<PostSummary> summaries = client.get().uri("/post")
+                .accept(MediaType.valueOf(PostController.NDJSON))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PostSummary.class)
+                .getResponseBody();
+        StepVerifier.create(summaries.map(PostSummary::title).take(2))
+                .expectNext("Title 0", "Title 1")
+                .verifyComplete();
+
+        Flux<Post> posts = client.get().uri("/post/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(PostController.NDJSON)
+                .returnResult(Post.class)
+                .getResponseBody();
+        StepVerifier.create(posts.count())
+                .expectNext((long) rows)
+                .verifyComplete();
+    }
+
+    private Post create(String title, String content) {
+        return client.post().uri("/post")
+                .bodyValue(request(title, content))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Post.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static PostRequest request(String title, String content) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,191 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application in a fresh JVM per run and records the time from process launch to the first successful
+ * {@code GET /post/{id}}, and the process RSS at that moment. The default build is compared with the optimized
+ * one: the "aot" profile on the AOT-processed context plus an AppCDS archive dumped by one training run. Default
+ * and optimized runs alternate so that background noise hits both alike.
+ */
+public class StartupBenchmark {
+
+    private static final String MAIN_CLASS = ItTaskApplication.class.getName();
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Path reports;
+    private final String classpath;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public StartupBenchmark(Path reports, String classpath, ObjectMapper objectMapper) {
+        this.reports = reports;
+        this.classpath = classpath;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Arguments: report directory, application jar, file holding the dependency classpath, number of runs.
+     */
+    public static void main(String[] args) throws Exception {
+        Path reports = Path.of(args[0]);
+        Files.createDirectories(reports);
+        String classpath = args[1] + File.pathSeparator + Files.readString(Path.of(args[2])).trim();
+        int runs = Integer.parseInt(args[3]);
+        new StartupBenchmark(reports, classpath, Jackson2ObjectMapperBuilder.json().build()).run(runs);
+    }
+
+    public void run(int runs) throws Exception {
+        Path archive = reports.resolve("app.jsa");
+        Files.deleteIfExists(archive);
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", List.of());
+        variants.put("optimized", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=aot"));
+
+        ObjectNode report = objectMapper.createObjectNode();
+        report.set("training", launch("training", List.of("-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.aot.enabled=true", "-Dspring.profiles.active=aot")));
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("Training run did not dump " + archive);
+        }
+        Map<String, ArrayNode> results = new LinkedHashMap<>();
+        variants.keySet().forEach(name -> results.put(name, objectMapper.createArrayNode()));
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                results.get(variant.getKey()).add(launch(variant.getKey() + "-" + run, variant.getValue()));
+            }
+        }
+        ObjectNode summary = report.putObject("variants");
+        results.forEach((name, samples) -> {
+            ObjectNode variant = summary.putObject(name);
+            variant.set("jvmArguments", objectMapper.valueToTree(variants.get(name)));
+            variant.set("firstGetMs", stats(samples, "firstGetMs"));
+            variant.set("rssMb", stats(samples, "rssMb"));
+            variant.set("runs", samples);
+        });
+        Files.writeString(reports.resolve("startup.json"),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(summary));
+    }
+
+    private ObjectNode launch(String name, List<String> jvmArguments) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.addAll(Arrays.asList("-cp", classpath, MAIN_CLASS,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=warn"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(reports.resolve(name + ".log").toFile())
+                .start();
+        try {
+            URI base = URI.create("http://localhost:" + port + "/post");
+            int id = createPost(process, base, start);
+            awaitOk(process, HttpRequest.newBuilder(base.resolve("post/" + id)).GET().build(), start);
+            long firstGet = System.nanoTime() - start;
+            ObjectNode sample = objectMapper.createObjectNode();
+            sample.put("firstGetMs", TimeUnit.NANOSECONDS.toMillis(firstGet));
+            sample.put("rssMb", rssKb(process) / 1024.0);
+            System.out.println(name + ": " + sample);
+            return sample;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(1, TimeUnit.MINUTES)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private int createPost(Process process, URI base, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Title\",\"content\":\"Content\"}"))
+                .build();
+        return objectMapper.readTree(awaitOk(process, request, start).body()).get("id").asInt();
+    }
+
+    /**
+     * Repeats {@code request} until it succeeds; connection refusals and errors mean the application is not up yet.
+     */
+    private HttpResponse<String> awaitOk(Process process, HttpRequest request, long start) throws Exception {
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    return response;
+                }
+            } catch (IOException ignored) {
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException("No successful " + request.method() + " " + request.uri()
+                + " within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * Resident set size from {@code /proc}, so Linux only; -1 elsewhere.
+     */
+    private static long rssKb(Process process) throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+
+    private ObjectNode stats(ArrayNode samples, String field) {
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.get(i).get(field).asDouble();
+        }
+        Arrays.sort(values);
+        ObjectNode stats = objectMapper.createObjectNode();
+        stats.put("min", values[0]);
+        stats.put("median", values.length % 2 == 1
+                ? values[values.length / 2]
+                : (values[values.length / 2 - 1] + values[values.length / 2]) / 2);
+        stats.put("max", values[values.length - 1]);
+        return stats;
+    }
+}
@@ -0,0 +1,66 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final PostProperties.ConcurrencyLimit config = new PostProperties.ConcurrencyLimit();
+
+    @Test
+    void tryAcquire_RejectsAtLimit() {
+        AdaptiveConcurrencyLimit limit = limit(2, 1, 10);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+        limit.release();
+        assertEquals(2, limit.tryAcquire());
+    }
+
+    @Test
+    void steadyLatency_GrowsWhileBusy() {
+        AdaptiveConcurrencyLimit limit = limit(20, 4, 100);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(limit.getLimit(), 10 * MILLIS);
+        }
+
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void steadyLatency_HoldsWhileIdle() {
+        AdaptiveConcurrencyLimit limit = limit(20, 4, 100);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(2, 10 * MILLIS);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void risingLatency_ShrinksTowardsMinimum() {
+        AdaptiveConcurrencyLimit limit = limit(50, 4, 100);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(50, 10 * MILLIS);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(before, 200 * MILLIS);
+        }
+
+        assertTrue(limit.getLimit() < before / 4, "limit " + limit.getLimit() + " from " + before);
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    private AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimit(new PostProperties.ConcurrencyLimit.Bounds(initial, min, max), config);
+    }
+}
@@ -0,0 +1,97 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "post.batch.chunk-size=100")
+@AutoConfigureMockMvc
+public class PostBatchIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createAll_Ok() throws Exception {
+        List<PostRequest> requests = requests(250);
+
+        mockMvc.perform(post("/post/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids", hasSize(250)))
+                .andExpect(jsonPath("$.ids", everyItem(notNullValue())))
+                .andExpect(jsonPath("$.errors", empty()));
+
+        assertEquals(250, statistics.getEntityInsertCount());
+        // 3 chunks of at most two 50-row JDBC batches each, plus a handful of pooled sequence calls
+        assertTrue(statistics.getPrepareStatementCount() <= 15,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createAll_InvalidItems_ReportedPerItem() throws Exception {
+        List<PostRequest> requests = requests(5);
+        requests.get(1).setTitle(null);
+        requests.get(3).setContent(null);
+
+        mockMvc.perform(post("/post/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids[0]", notNullValue()))
+                .andExpect(jsonPath("$.ids[1]", nullValue()))
+                .andExpect(jsonPath("$.ids[2]", notNullValue()))
+                .andExpect(jsonPath("$.ids[3]", nullValue()))
+                .andExpect(jsonPath("$.ids[4]", notNullValue()))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].index", is(1)))
+                .andExpect(jsonPath("$.errors[0].message", is("title: must not be null")))
+                .andExpect(jsonPath("$.errors[1].index", is(3)))
+                .andExpect(jsonPath("$.errors[1].message", is("content: must not be null")));
+
+        assertEquals(3, statistics.getEntityInsertCount());
+    }
+
+    private List<PostRequest> requests(int count) {
+        List<PostRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PostRequest request = new PostRequest();
+            request.setTitle("Title " + i);
+            request.setContent("Content " + i);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
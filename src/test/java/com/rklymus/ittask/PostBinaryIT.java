@@ -0,0 +1,92 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostBinaryIT {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    private final ObjectMapper cbor = new CBORMapper();
+    private final ObjectMapper smile = new SmileMapper();
+
+    @Test
+    void get_DefaultsToJson() throws Exception {
+        Post post = service.create(request());
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void get_Cbor() throws Exception {
+        Post post = service.create(request());
+
+        byte[] body = mockMvc.perform(get("/post/" + post.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode decoded = cbor.readTree(body);
+        assertEquals(post.getId(), decoded.get("id").asInt());
+        assertEquals("Title", decoded.get("title").asText());
+        assertTrue(decoded.get("timestamp").isTextual());
+    }
+
+    @Test
+    void create_SmileInSmileOut() throws Exception {
+        byte[] body = mockMvc.perform(post("/post")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smile.writeValueAsBytes(Map.of("title", "Smile", "content", "Content"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("Smile", smile.readTree(body).get("title").asText());
+    }
+
+    @Test
+    void notFound_NegotiatesErrorBody() throws Exception {
+        byte[] body = mockMvc.perform(get("/post/" + Integer.MAX_VALUE)
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(404, cbor.readTree(body).get("status").asInt());
+    }
+
+    private static PostRequest request() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        return request;
+    }
+}
@@ -0,0 +1,159 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "post.changes.capacity=8")
+@AutoConfigureMockMvc
+public class PostChangesIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostChangeFeed changeFeed;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void poll_ReturnsCreateUpdateDeleteInOrder() throws Exception {
+        long since = changeFeed.head();
+        int id = create();
+        mockMvc.perform(put("/post/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Raichu\",\"content\":\"Vermilion City\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/post/" + id)).andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/post/changes").param("since", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].type", contains("CREATED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$.items[*].id", everyItem(is(id))))
+                .andExpect(jsonPath("$.items[0].sequence", is(since + 1)))
+                .andExpect(jsonPath("$.items[1].version", is(1)))
+                .andExpect(jsonPath("$.next", is(since + 3)));
+    }
+
+    @Test
+    void poll_WaitsForNextChange() throws Exception {
+        MvcResult result = mockMvc.perform(get("/post/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        int id = create();
+
+        JsonNode changes = objectMapper.readTree(mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(id, changes.get("items").get(0).get("id").asInt());
+        assertEquals("CREATED", changes.get("items").get(0).get("type").asText());
+    }
+
+    @Test
+    void poll_ThousandsOfIdlePollsShareOneDispatcher() throws Exception {
+        List<DeferredResult<PostChanges>> polls = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            polls.add(changeFeed.poll(null));
+        }
+        assertTrue(polls.stream().noneMatch(DeferredResult::hasResult));
+
+        int id = create();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!polls.stream().allMatch(DeferredResult::hasResult) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (DeferredResult<PostChanges> poll : polls) {
+            assertEquals(id, ((PostChanges) poll.getResult()).getItems().get(0).id());
+        }
+    }
+
+    @Test
+    void poll_FellOffBuffer_Gone() throws Exception {
+        long since = changeFeed.head();
+        for (int i = 0; i < 10; i++) {
+            create();
+        }
+
+        mockMvc.perform(get("/post/changes").param("since", Long.toString(since)))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.message", containsString("resync")));
+        mockMvc.perform(get("/post/changes").param("since", "1"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void stream_SendsChangesAsEvents() throws Exception {
+        long since = changeFeed.head();
+        MvcResult result = mockMvc.perform(get("/post/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .param("since", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        int id = create();
+
+        String body = awaitContent(result, "\"id\":" + id);
+        assertTrue(body.contains("event:created"), body);
+        assertTrue(body.contains("id:" + (since + 1)), body);
+        assertTrue(body.contains("\"id\":" + id), body);
+    }
+
+    @Test
+    void stream_FellOffBuffer_SendsResyncEvent() throws Exception {
+        long since = changeFeed.head();
+        for (int i = 0; i < 10; i++) {
+            create();
+        }
+
+        MvcResult result = mockMvc.perform(get("/post/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = awaitContent(result, "resync required");
+        assertTrue(body.startsWith("event:resync"), body);
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body;
+        while (!(body = result.getResponse().getContentAsString()).contains(expected)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return body;
+    }
+
+    private int create() throws Exception {
+        String response = mockMvc.perform(post("/post")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Pikachu\",\"content\":\"Viridian Forest\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asInt();
+    }
+}
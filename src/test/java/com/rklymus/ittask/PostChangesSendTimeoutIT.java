@@ -0,0 +1,99 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The subscriber buffer is larger than anything published here, so a client that stops reading can only be
+ * dropped by the send timeout.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "post.changes.capacity=100000",
+        "post.changes.subscriber-buffer=100000",
+        "post.changes.senders=2",
+        "post.changes.send-timeout=PT1S"})
+public class PostChangesSendTimeoutIT {
+
+    private static final int CHUNK = 100;
+    private static final int MAX_CHANGES = 90_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PostChangeFeed changeFeed;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stream_SendBlockedPastTimeout_DroppedWithoutStallingOthers() throws Exception {
+        long since = changeFeed.head();
+        String request = "GET /post/changes?since=" + since + " HTTP/1.1\r\n"
+                + "Host: localhost\r\nAccept: text/event-stream\r\n\r\n";
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = stalled.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            List<Long> received = new CopyOnWriteArrayList<>();
+            HttpClient.newHttpClient().sendAsync(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/post/changes?since=" + since))
+                            .header("Accept", "text/event-stream")
+                            .build(),
+                    HttpResponse.BodyHandlers.ofLines()).thenAccept(response -> response.body()
+                    .filter(line -> line.startsWith("id:"))
+                    .forEach(line -> received.add(Long.parseLong(line.substring(3)))));
+            await(() -> sseSubscribers() == 2);
+
+            int published = 0;
+            while (sseSubscribers() == 2 && published < MAX_CHANGES) {
+                for (int i = 0; i < CHUNK; i++) {
+                    changeFeed.publish(PostChange.Type.CREATED, ++published, 0L);
+                }
+                int expected = published;
+                await(() -> received.size() == expected);
+                assertEquals(published, received.size(), "reading client stalled");
+            }
+            await(() -> sseSubscribers() == 1);
+
+            assertEquals(1, sseSubscribers(), "client blocked in send was never dropped");
+            for (int i = 0; i < CHUNK; i++) {
+                changeFeed.publish(PostChange.Type.CREATED, ++published, 0L);
+            }
+            int expected = published;
+            await(() -> received.size() == expected);
+            assertEquals(published, received.size());
+        }
+    }
+
+    private double sseSubscribers() {
+        return meterRegistry.get("post.changes.subscribers").tag("type", "sse").gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
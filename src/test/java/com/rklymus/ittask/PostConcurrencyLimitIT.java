@@ -0,0 +1,73 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "post.concurrency-limit.read.initial=1",
+        "post.concurrency-limit.read.min=1",
+        "post.concurrency-limit.read.max=1",
+        "post.concurrency-limit.retry-after=PT2S"
+})
+@AutoConfigureMockMvc
+public class PostConcurrencyLimitIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostConcurrencyLimiter limiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private boolean held;
+
+    @AfterEach
+    void release() {
+        if (held) {
+            limiter.limit("read").release();
+        }
+    }
+
+    @Test
+    void readsOverLimit_ShedWithRetryAfter() throws Exception {
+        held = limiter.limit("read").tryAcquire() > 0;
+
+        mockMvc.perform(get("/post"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.status", is(503)));
+        mockMvc.perform(post("/post")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Title\",\"content\":\"Content\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1.0, meterRegistry.get("post.concurrency.rejected").tag("kind", "read").counter().count());
+        assertEquals(1.0, meterRegistry.get("post.concurrency.limit").tag("kind", "read").gauge().value());
+        assertEquals(1.0, meterRegistry.get("post.concurrency.inflight").tag("kind", "read").gauge().value());
+    }
+
+    @Test
+    void completedRequests_ReturnTheirSlot() throws Exception {
+        mockMvc.perform(get("/post")).andExpect(status().isOk());
+        mockMvc.perform(get("/post")).andExpect(status().isOk());
+
+        assertEquals(0, limiter.limit("read").getInflight());
+    }
+}
@@ -0,0 +1,121 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostConditionalIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Post post;
+
+    @BeforeEach
+    void init() {
+        post = service.create(request("Title", "Content"));
+    }
+
+    @Test
+    void get_EmitsValidators() throws Exception {
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-0\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.version", is(0)));
+    }
+
+    @Test
+    void get_IfNoneMatch_304WithoutBody() throws Exception {
+        mockMvc.perform(get("/post/" + post.getId()).header(HttpHeaders.IF_NONE_MATCH, post.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void update_IfMatchCurrent_Ok() throws Exception {
+        mockMvc.perform(put("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, post.etag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("TitleNew", "ContentNew"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-1\""))
+                .andExpect(jsonPath("$.title", is("TitleNew")));
+
+        mockMvc.perform(get("/post/" + post.getId()).header(HttpHeaders.IF_NONE_MATCH, post.etag()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    void update_IfMatchStale_412Status() throws Exception {
+        service.update(post.getId(), request("Other", "Other"), null);
+
+        mockMvc.perform(put("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, post.etag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("TitleNew", "ContentNew"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message", is("Entity with id=" + post.getId() + " does not match If-Match")));
+    }
+
+    @Test
+    void update_IfMatchOtherEntity_412Status() throws Exception {
+        mockMvc.perform(put("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (post.getId() + 1) + "-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("TitleNew", "ContentNew"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_IfMatchWeak_412Status() throws Exception {
+        mockMvc.perform(put("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, "W/" + post.etag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("TitleNew", "ContentNew"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_RowWithoutVersion_MatchesAsVersionZero() throws Exception {
+        jdbcTemplate.update("update post set version = null where id = ?", post.getId());
+
+        mockMvc.perform(put("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + post.getId() + "-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("TitleNew", "ContentNew"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-1\""))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    private static PostRequest request(String title, String content) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostContentConverterTest {
+
+    private final PostContentConverter converter = new PostContentConverter(new PostProperties());
+
+    @Test
+    void shortContent_StoredRaw() {
+        byte[] stored = converter.convertToDatabaseColumn("Pallet Town");
+
+        assertEquals(PostContentConverter.RAW, stored[0]);
+        assertEquals("Pallet Town".length() + 1, stored.length);
+        assertEquals("Pallet Town", converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void longContent_StoredDeflated() {
+        String content = "Pikachu uses Thunderbolt on Viridian Forest. ".repeat(500);
+
+        byte[] stored = converter.convertToDatabaseColumn(content);
+
+        assertEquals(PostContentConverter.DEFLATED, stored[0]);
+        assertTrue(stored.length < content.length() / 10);
+        assertEquals(content, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void thresholdIsConfigurable() {
+        PostProperties properties = new PostProperties();
+        properties.getContent().setCompressionThreshold(Integer.MAX_VALUE);
+        String content = "Cerulean City ".repeat(500);
+
+        byte[] stored = new PostContentConverter(properties).convertToDatabaseColumn(content);
+
+        assertEquals(PostContentConverter.RAW, stored[0]);
+        assertEquals(content, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void legacyPlainText_ReadAsIs() {
+        byte[] stored = "Pallet Town".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("Pallet Town", converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void nullAndEmpty_RoundTrip() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertEquals("", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("")));
+    }
+}
@@ -0,0 +1,89 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostContentIT {
+
+    private static final String ARTICLE = "Ash and Pikachu leave Pallet Town for Viridian Forest. ".repeat(2000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void init() {
+        postRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void longContent_RoundTripsCompressed() throws Exception {
+        Integer id = create("Article", ARTICLE);
+
+        mockMvc.perform(get("/post/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is(ARTICLE)));
+        Number stored = (Number) entityManager.createNativeQuery("select octet_length(content) from post where id = :id")
+                .setParameter("id", id)
+                .getSingleResult();
+        assertTrue(stored.intValue() < ARTICLE.length() / 10, "stored " + stored + " bytes");
+
+        String updated = ARTICLE + "The end.";
+        mockMvc.perform(patch("/post/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("content", updated))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is(updated)));
+        mockMvc.perform(get("/post/" + id))
+                .andExpect(jsonPath("$.content", is(updated)));
+    }
+
+    @Test
+    void listAndSearch_ReturnSummariesWithoutContent() throws Exception {
+        Integer id = create("Viridian Forest", ARTICLE);
+
+        mockMvc.perform(get("/post"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(id)))
+                .andExpect(jsonPath("$.items[0].title", is("Viridian Forest")))
+                .andExpect(jsonPath("$.items[0].timestamp", notNullValue()))
+                .andExpect(jsonPath("$.items[0].content").doesNotExist());
+        mockMvc.perform(get("/post/search").param("q", "pikachu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(id)))
+                .andExpect(jsonPath("$[0].content").doesNotExist());
+    }
+
+    private Integer create(String title, String content) throws Exception {
+        String response = mockMvc.perform(post("/post")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", title, "content", content))))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asInt();
+    }
+}
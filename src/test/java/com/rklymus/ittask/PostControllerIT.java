@@ -9,22 +9,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith({SpringExtension.class})
-@SpringBootTest
+@SpringBootTest(properties = "post.id-filter.enabled=false")
 @AutoConfigureMockMvc
 public class PostControllerIT {
 
@@ -34,6 +37,12 @@ public class PostControllerIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PostContentConverter contentConverter;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final Post post = new Post();
@@ -42,6 +51,7 @@ public class PostControllerIT {
 
     @BeforeEach
     void init() {
+        cacheManager.getCache(PostService.CACHE).clear();
         post.setId(faker.number().randomDigitNotZero());
         post.setTitle(faker.pokemon().name());
         post.setContent(faker.pokemon().location());
@@ -123,8 +133,9 @@ public class PostControllerIT {
         post.setTitle(newTitle);
         post.setContent(newContent);
 
+        when(postRepo.updateFields(eq(post.getId()), eq(newTitle), aryEq(contentConverter.convertToDatabaseColumn(newContent)), isNull(), any()))
+                .thenReturn(1);
         when(postRepo.findById(post.getId())).thenReturn(Optional.of(post));
-        when(postRepo.save(any(Post.class))).thenReturn(post);
 
         mockMvc.perform(put("/post/" + post.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -170,7 +181,8 @@ public class PostControllerIT {
         request.setTitle(newTitle);
         request.setContent(newContent);
 
-        when(postRepo.findById(post.getId())).thenReturn(Optional.empty());
+        when(postRepo.updateFields(eq(post.getId()), eq(newTitle), aryEq(contentConverter.convertToDatabaseColumn(newContent)), isNull(), any()))
+                .thenReturn(0);
 
         mockMvc.perform(put("/post/" + post.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -181,16 +193,18 @@ public class PostControllerIT {
 
     @Test
     void deletePost_Ok() throws Exception {
-        when(postRepo.findById(post.getId())).thenReturn(Optional.of(post));
+        when(postRepo.findTimestampById(post.getId())).thenReturn(List.of(post.getTimestamp()));
+        when(postRepo.removeById(post.getId())).thenReturn(1);
 
         mockMvc.perform(delete("/post/" + post.getId()))
                 .andExpect(status().isOk());
-        verify(postRepo, times(1)).delete(post);
+        verify(postRepo, times(1)).removeById(post.getId());
     }
 
     @Test
     public void deletePost_EntityNotFound_404Status() throws Exception {
-        when(postRepo.findById(post.getId())).thenReturn(Optional.empty());
+        when(postRepo.findTimestampById(post.getId())).thenReturn(List.of(post.getTimestamp()));
+        when(postRepo.removeById(post.getId())).thenReturn(0);
 
         mockMvc.perform(delete("/post/" + post.getId()))
                 .andExpect(status().isNotFound())
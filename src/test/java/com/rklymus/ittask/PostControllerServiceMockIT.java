@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,11 +26,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith({SpringExtension.class})
 @WebMvcTest(PostController.class)
+@EnableConfigurationProperties(PostProperties.class)
 public class PostControllerServiceMockIT {
 
     @MockBean
     private PostService service;
 
+    @MockBean
+    private PostChangeFeed changeFeed;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -119,7 +124,7 @@ public class PostControllerServiceMockIT {
         post.setTitle("TitleNew");
         post.setContent("ContentNew");
 
-        when(service.update(1, request)).thenReturn(post);
+        when(service.update(1, request, null)).thenReturn(post);
 
         mockMvc.perform(put("/post/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -138,7 +143,7 @@ public class PostControllerServiceMockIT {
         request.setContent("Content");
 
         EntityNotFoundException ex = new EntityNotFoundException(1);
-        when(service.update(1, request)).thenThrow(ex);
+        when(service.update(1, request, null)).thenThrow(ex);
 
         mockMvc.perform(put("/post/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,132 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostExportIT {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 20_000);
+    private static final int MIN_ROWS_PER_SECOND = Integer.getInteger("export.min-rows-per-second", 5_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private PostService service;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void init() {
+        postRepo.deleteAllInBatch();
+        List<PostRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            PostRequest request = new PostRequest();
+            request.setTitle("Title " + i);
+            request.setContent("Content " + i);
+            requests.add(request);
+        }
+        service.createAll(requests);
+    }
+
+    @Test
+    void export_StreamsEveryRowAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/post/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.valueOf(PostController.NDJSON)));
+
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(result.getResponse().getContentAsString()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode post = objectMapper.readTree(line);
+                assertTrue(post.hasNonNull("id"));
+                lines++;
+            }
+        }
+        assertEquals(ROWS, lines);
+    }
+
+    /**
+     * Rows per second through {@link PostService#exportAll}, after one pass to warm up. The floor only catches
+     * the export falling off a cliff, such as going back to a query per row; the figure itself is printed.
+     */
+    @Test
+    void exportAll_Throughput() {
+        long[] count = new long[1];
+        service.exportAll(post -> count[0]++);
+        count[0] = 0;
+
+        long start = System.nanoTime();
+        service.exportAll(post -> count[0]++);
+        long elapsed = System.nanoTime() - start;
+
+        double rowsPerSecond = count[0] * 1e9 / elapsed;
+        System.out.printf("export: %d rows in %d ms (%.0f rows/s)%n", count[0], elapsed / 1_000_000, rowsPerSecond);
+        assertEquals(ROWS, count[0]);
+        assertTrue(rowsPerSecond >= MIN_ROWS_PER_SECOND,
+                String.format("export ran at %.0f rows/s, expected at least %d", rowsPerSecond, MIN_ROWS_PER_SECOND));
+    }
+
+    /**
+     * Heap still reachable once the last row is handed out, against what holding every row at once costs. The
+     * embedded H2 driver keeps the raw result set in memory, so streaming is not free, only well under half.
+     */
+    @Test
+    void exportAll_RetainsFarLessHeapThanMaterializing() {
+        long before = usedHeapAfterGc();
+        List<Post> all = postRepo.findAll();
+        long materialized = usedHeapAfterGc() - before;
+        assertEquals(ROWS, all.size());
+        all = null;
+
+        long baseline = usedHeapAfterGc();
+        long[] count = new long[1];
+        long[] retained = new long[1];
+        service.exportAll(post -> {
+            if (++count[0] == ROWS) {
+                retained[0] = usedHeapAfterGc() - baseline;
+            }
+        });
+
+        assertEquals(ROWS, count[0]);
+        assertTrue(retained[0] < materialized / 2,
+                "export retained " + retained[0] + " bytes, materializing takes " + materialized);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+package com.rklymus.ittask;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The filter is off by default; tests that exercise it switch it on for their own duration.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostIdFilterIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostIdFilter idFilter;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private PostProperties properties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void disable() {
+        properties.getIdFilter().setEnabled(false);
+    }
+
+    @Test
+    void get_UnknownId_404WithoutQuery() throws Exception {
+        properties.getIdFilter().setEnabled(true);
+        idFilter.rebuild();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/post/" + Integer.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Entity with id=" + Integer.MAX_VALUE + " not found")));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void get_CreatedAfterRebuild_Found() throws Exception {
+        properties.getIdFilter().setEnabled(true);
+        idFilter.rebuild();
+        Post post = service.create(request());
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(post.getId())));
+    }
+
+    /**
+     * A row inserted without this instance's knowledge, as another instance would, must not read as missing.
+     */
+    @Test
+    void get_CreatedBehindTheFiltersBack_FoundByDefault() throws Exception {
+        idFilter.rebuild();
+        Post post = postRepo.save(request().toEntity());
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(post.getId())));
+    }
+
+    private static PostRequest request() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        return request;
+    }
+}
@@ -0,0 +1,91 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostIdFilterTest {
+
+    private final PostRepo postRepo = mock(PostRepo.class);
+
+    @Test
+    void mightContain_AllowsEverythingUntilBuilt() {
+        PostProperties properties = new PostProperties();
+        PostIdFilter filter = new PostIdFilter(postRepo, properties, new PostShards(properties, null, null));
+
+        assertTrue(filter.mightContain(42));
+    }
+
+    @Test
+    void mightContain_Disabled_AllowsIdsNeverSeen() {
+        PostProperties properties = new PostProperties();
+        PostIdFilter filter = new PostIdFilter(postRepo, properties, new PostShards(properties, null, null));
+        when(postRepo.findIdsAfter(anyInt(), any())).thenReturn(List.of());
+        filter.rebuild();
+
+        assertTrue(filter.mightContain(42));
+    }
+
+    @Test
+    void rebuild_NoFalseNegativesAndFewFalsePositives() {
+        PostProperties properties = new PostProperties();
+        properties.getIdFilter().setEnabled(true);
+        properties.getIdFilter().setExpectedInsertions(10_000);
+        PostIdFilter filter = new PostIdFilter(postRepo, properties, new PostShards(properties, null, null));
+        when(postRepo.findIdsAfter(Integer.MIN_VALUE, PageRequest.of(0, 10_000)))
+                .thenReturn(IntStream.rangeClosed(1, 10_000).boxed().toList());
+        when(postRepo.findIdsAfter(10_000, PageRequest.of(0, 10_000)))
+                .thenReturn(List.of(10_001));
+
+        filter.rebuild();
+        filter.add(20_000);
+
+        IntStream.rangeClosed(1, 10_001).forEach(id -> assertTrue(filter.mightContain(id)));
+        assertTrue(filter.mightContain(20_000));
+        long falsePositives = IntStream.range(100_000, 200_000).filter(filter::mightContain).count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertFalse(filter.mightContain(-1) && filter.mightContain(-2) && filter.mightContain(-3));
+    }
+
+    @Test
+    void add_ConcurrentWithRebuild_NoFalseNegatives() throws Exception {
+        PostProperties properties = new PostProperties();
+        properties.getIdFilter().setEnabled(true);
+        PostIdFilter filter = new PostIdFilter(postRepo, properties, new PostShards(properties, null, null));
+        NavigableSet<Integer> committed = new ConcurrentSkipListSet<>();
+        when(postRepo.findIdsAfter(anyInt(), any())).thenAnswer(invocation -> {
+            Pageable page = invocation.getArgument(1);
+            return committed.tailSet(invocation.getArgument(0), false).stream().limit(page.getPageSize()).toList();
+        });
+        filter.rebuild();
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread rebuilds = new Thread(() -> {
+            while (writing.get()) {
+                filter.rebuild();
+            }
+        });
+        rebuilds.start();
+        for (int id = 1; id <= 200_000; id++) {
+            committed.add(id);
+            filter.add(id);
+        }
+        writing.set(false);
+        rebuilds.join();
+
+        IntStream.rangeClosed(1, 200_000).forEach(id -> assertTrue(filter.mightContain(id), "lost id " + id));
+    }
+}
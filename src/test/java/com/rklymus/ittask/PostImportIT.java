@@ -0,0 +1,109 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"post.batch.chunk-size=10", "post.batch.max-line-length=1000"})
+@AutoConfigureMockMvc
+public class PostImportIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void init() {
+        postRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void import_Ok() throws Exception {
+        mockMvc.perform(post("/post/import")
+                        .contentType(PostController.NDJSON)
+                        .content(ndjson(25, -1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(25)))
+                .andExpect(jsonPath("$.rejected", is(0)))
+                .andExpect(jsonPath("$.failures", empty()));
+
+        assertEquals(25, postRepo.count());
+    }
+
+    @Test
+    void import_InvalidLines_ReportedByLineNumber() throws Exception {
+        String body = ndjson(3, -1)
+                + "{\"title\":null,\"content\":\"Content\"}\n"
+                + "\n"
+                + "{not json\n"
+                + ndjson(2, -1);
+
+        mockMvc.perform(post("/post/import")
+                        .contentType(PostController.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(5)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.failures[0].line", is(4)))
+                .andExpect(jsonPath("$.failures[0].message", is("title: must not be null")))
+                .andExpect(jsonPath("$.failures[1].line", is(6)));
+
+        assertEquals(5, postRepo.count());
+    }
+
+    @Test
+    void import_FailingChunk_KeepsOtherChunks() throws Exception {
+        mockMvc.perform(post("/post/import")
+                        .contentType(PostController.NDJSON)
+                        .content(ndjson(30, 15)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(20)))
+                .andExpect(jsonPath("$.rejected", is(10)))
+                .andExpect(jsonPath("$.failures[*].line", contains(11, 12, 13, 14, 15, 16, 17, 18, 19, 20)));
+
+        assertEquals(20, postRepo.count());
+    }
+
+    @Test
+    void import_OverlongLine_RejectedWithoutReadingItWhole() throws Exception {
+        String body = ndjson(2, -1)
+                + "{\"title\":\"Title\",\"content\":\"" + "x".repeat(100_000) + "\"}\r\n"
+                + "{\"title\":\"Last\",\"content\":\"Content\"}";
+
+        mockMvc.perform(post("/post/import")
+                        .contentType(PostController.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(3)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.failures[0].line", is(3)))
+                .andExpect(jsonPath("$.failures[0].message", is("line is longer than 1000 characters")));
+
+        assertEquals(3, postRepo.count());
+    }
+
+    private String ndjson(int count, int oversizedLine) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            PostRequest request = new PostRequest();
+            request.setTitle(i == oversizedLine ? "x".repeat(300) : "Title " + i);
+            request.setContent("Content " + i);
+            body.append(objectMapper.writeValueAsString(request)).append('\n');
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"post.lookup.chunk-size=2", "post.lookup.max-ids=5"})
+@AutoConfigureMockMvc
+public class PostLookupIT {
+
+    private static final int UNKNOWN_ID = Integer.MAX_VALUE;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Statistics statistics;
+
+    private Post first;
+    private Post second;
+    private Post third;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCache(PostService.CACHE).clear();
+        first = service.create(request("First"));
+        second = service.create(request("Second"));
+        third = service.create(request("Third"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAll_KeepsRequestOrderAndReportsMissing() throws Exception {
+        mockMvc.perform(get("/post").param("ids", third.getId() + "," + UNKNOWN_ID + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(third.getId(), first.getId())))
+                .andExpect(jsonPath("$.missing", contains(UNKNOWN_ID)));
+    }
+
+    @Test
+    void getAll_OneQueryPerChunk() throws Exception {
+        mockMvc.perform(get("/post").param("ids", first.getId() + "," + second.getId() + "," + third.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing", empty()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAll_CachedPostsSkipTheQuery() throws Exception {
+        service.get(first.getId());
+        service.get(second.getId());
+        statistics.clear();
+
+        mockMvc.perform(get("/post").param("ids", first.getId() + "," + second.getId() + "," + third.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(first.getId(), second.getId(), third.getId())));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lookup_PostBody() throws Exception {
+        mockMvc.perform(post("/post/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(second.getId(), first.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title", contains("Second", "First")));
+    }
+
+    @Test
+    void lookup_TooManyIds_400Status() throws Exception {
+        mockMvc.perform(post("/post/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(1, 2, 3, 4, 5, 6))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Requested 6 ids, at most 5 allowed"));
+    }
+
+    private static PostRequest request(String title) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent("Content");
+        return request;
+    }
+}
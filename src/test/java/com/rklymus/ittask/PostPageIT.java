@@ -0,0 +1,106 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "post.page.max-size=10")
+@AutoConfigureMockMvc
+public class PostPageIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Post> posts;
+
+    @BeforeEach
+    void init() {
+        postRepo.deleteAllInBatch();
+        List<Post> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Post post = new Post();
+            post.setTitle("Title " + i);
+            post.setContent("Content " + i);
+            created.add(post);
+        }
+        postRepo.saveAll(created);
+        posts = new ArrayList<>(postRepo.findAll());
+        posts.sort(Comparator.comparing(Post::getTimestamp).thenComparing(Post::getId));
+    }
+
+    @Test
+    void list_WalksAllPagesInOrder() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/post").param("size", "10");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> ids.add(item.get("id").asInt()));
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(posts.stream().map(Post::getId).toList(), ids);
+    }
+
+    @Test
+    void list_SizeIsCapped() throws Exception {
+        mockMvc.perform(get("/post").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(10)))
+                .andExpect(jsonPath("$.next", notNullValue()));
+    }
+
+    @Test
+    void list_TimestampRange() throws Exception {
+        LocalDateTime from = posts.get(0).getTimestamp();
+        LocalDateTime to = posts.get(posts.size() - 1).getTimestamp();
+        long expected = posts.stream()
+                .filter(post -> !post.getTimestamp().isBefore(from) && post.getTimestamp().isBefore(to))
+                .limit(10)
+                .count();
+
+        mockMvc.perform(get("/post")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize((int) expected)))
+                .andExpect(jsonPath("$.items[0].id", is(posts.get(0).getId())));
+    }
+
+    @Test
+    void list_InvalidCursor_400Status() throws Exception {
+        mockMvc.perform(get("/post").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Invalid cursor not-a-cursor")));
+    }
+}
@@ -0,0 +1,93 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The replica is an H2 database with its own empty POST table, standing in for a replica that lags behind
+ * the primary indefinitely. Background rebuilds must not read from it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rebuild-replica-it-primary",
+        "post.datasource.replicas[0].url=jdbc:h2:mem:rebuild-replica-it-lagging;INIT=CREATE TABLE IF NOT EXISTS POST"
+                + "(ID INTEGER PRIMARY KEY, CONTENT BLOB, MODIFIED TIMESTAMP(6), TIMESTAMP TIMESTAMP(6),"
+                + " TITLE VARCHAR(255), VERSION BIGINT)",
+        "post.datasource.read-your-writes-window=0s",
+        "post.id-filter.enabled=true"
+})
+public class PostRebuildReplicaIT {
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private PostIdFilter idFilter;
+
+    @Autowired
+    private PostSearchIndex searchIndex;
+
+    @Autowired
+    private PostStats stats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Integer> ids = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 20; i++) {
+            PostRequest request = new PostRequest();
+            request.setTitle("Lagging " + i);
+            request.setContent("Replicated late");
+            ids.add(service.create(request).getId());
+        }
+    }
+
+    @Test
+    void idFilter_RebuildsFromPrimary() {
+        double replica = routes();
+
+        idFilter.rebuild();
+
+        ids.forEach(id -> assertTrue(idFilter.mightContain(id), "missing id " + id));
+        assertEquals(replica, routes());
+    }
+
+    @Test
+    void searchIndex_RebuildsFromPrimary() {
+        double replica = routes();
+
+        searchIndex.rebuild();
+
+        assertTrue(searchIndex.search("replicated", 1000).containsAll(ids));
+        assertEquals(replica, routes());
+    }
+
+    @Test
+    void stats_ReconcileFromPrimary() {
+        double replica = routes();
+
+        stats.reconcile();
+
+        long total = ReplicaRoutingDataSource.onPrimary(postRepo::count);
+        assertEquals(total, stats.snapshot().getTotal());
+        assertEquals(replica, routes());
+    }
+
+    private double routes() {
+        return meterRegistry.counter("post.datasource.routes", "target", "replica-0").count();
+    }
+}
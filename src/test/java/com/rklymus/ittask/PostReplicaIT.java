@@ -0,0 +1,124 @@
+package com.rklymus.ittask;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The healthy replica is an H2 database whose POST table is linked to the primary's, standing in for
+ * replication; the second replica does not exist and has to be routed around.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-it-primary",
+        "post.datasource.replicas[0].url=jdbc:h2:mem:replica-it-0;INIT=CREATE LINKED TABLE IF NOT EXISTS POST"
+                + "('org.h2.Driver', 'jdbc:h2:mem:replica-it-primary', 'sa', '', 'POST')",
+        "post.datasource.replicas[1].url=jdbc:h2:mem:replica-it-1;IFEXISTS=TRUE",
+        "post.datasource.replica-connection-timeout=250ms",
+        "post.datasource.read-your-writes-window=200ms"
+})
+@AutoConfigureMockMvc
+public class PostReplicaIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Post post;
+
+    @BeforeEach
+    void init() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        post = service.create(request);
+        cacheManager.getCache(PostService.CACHE).clear();
+    }
+
+    @Test
+    void list_ReadsFromReplica() throws Exception {
+        double before = routes("replica-0");
+
+        mockMvc.perform(get("/post"))
+                .andExpect(status().isOk());
+
+        assertTrue(routes("replica-0") > before);
+    }
+
+    @Test
+    void create_WritesToPrimary() {
+        double primary = routes("primary");
+        double replica = routes("replica-0");
+
+        PostRequest request = new PostRequest();
+        request.setTitle("Other");
+        request.setContent("Other");
+        service.create(request);
+
+        assertTrue(routes("primary") > primary);
+        assertEquals(replica, routes("replica-0"));
+    }
+
+    @Test
+    void get_RecentlyWritten_ReadsFromPrimary() throws Exception {
+        double replica = routes("replica-0");
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Title")));
+
+        assertEquals(replica, routes("replica-0"));
+    }
+
+    @Test
+    void get_AfterWindow_ReadsFromReplica() throws Exception {
+        Thread.sleep(300);
+        double replica = routes("replica-0");
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Title")));
+
+        assertTrue(routes("replica-0") > replica);
+    }
+
+    @Test
+    void unavailableReplica_FallsBack() throws Exception {
+        routingDataSource.checkHealth();
+        assertFalse(routingDataSource.isHealthy("replica-1"));
+        assertTrue(routingDataSource.isHealthy("replica-0"));
+
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/post"))
+                    .andExpect(status().isOk());
+        }
+        assertEquals(0, routes("replica-1"));
+    }
+
+    private double routes(String target) {
+        return meterRegistry.counter("post.datasource.routes", "target", target).count();
+    }
+}
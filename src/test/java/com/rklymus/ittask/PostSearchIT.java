@@ -0,0 +1,63 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostSearchIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void search_FollowsCreateUpdateDelete() throws Exception {
+        int id = create("Jigglypuff", "Sings in Mt. Moon");
+
+        mockMvc.perform(get("/post/search").param("q", "jigglypuff moon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(id)));
+
+        PostRequest request = new PostRequest();
+        request.setTitle("Jigglypuff");
+        request.setContent("Sleeps in Celadon");
+        mockMvc.perform(put("/post/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/post/search").param("q", "jigglypuff moon"))
+                .andExpect(jsonPath("$", empty()));
+        mockMvc.perform(get("/post/search").param("q", "celadon"))
+                .andExpect(jsonPath("$[*].id", contains(id)));
+
+        mockMvc.perform(delete("/post/" + id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/post/search").param("q", "celadon"))
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    private int create(String title, String content) throws Exception {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        String response = mockMvc.perform(post("/post")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asInt();
+    }
+}
@@ -0,0 +1,146 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostSearchIndexTest {
+
+    private final PostRepo postRepo = mock(PostRepo.class);
+
+    private PostSearchIndex index;
+
+    @BeforeEach
+    void init() {
+        PostProperties properties = new PostProperties();
+        index = new PostSearchIndex(postRepo, properties, new PostShards(properties, null, null));
+    }
+
+    @Test
+    void search_MatchesAllTermsAcrossTitleAndContent() {
+        index.add(post(1, "Pikachu", "Lives in Viridian Forest"));
+        index.add(post(2, "Bulbasaur", "Lives in Pallet Town"));
+        index.add(post(3, "Pikachu", "Seen in Pallet Town"));
+
+        assertEquals(List.of(3), index.search("pikachu PALLET", 10));
+        assertEquals(List.of(), index.search("pikachu cerulean", 10));
+        assertEquals(List.of(), index.search("a", 10));
+    }
+
+    @Test
+    void search_RanksByRelevance() {
+        index.add(post(1, "Forest", "Trees and a forest path through the forest"));
+        index.add(post(2, "Town", "A forest nearby"));
+        index.add(post(3, "Sea", "Water everywhere"));
+
+        assertEquals(List.of(1, 2), index.search("forest", 10));
+        assertEquals(List.of(1), index.search("forest", 1));
+    }
+
+    @Test
+    void updateAndRemove_KeepIndexInSync() {
+        index.add(post(1, "Charmander", "Fire"));
+        index.add(post(1, "Squirtle", "Water"));
+
+        assertEquals(List.of(), index.search("fire", 10));
+        assertEquals(List.of(1), index.search("water", 10));
+
+        index.remove(1);
+        assertEquals(List.of(), index.search("water", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rebuild_LoadsRepositoryInChunks() {
+        PostProperties properties = new PostProperties();
+        properties.getSearch().setRebuildChunkSize(2);
+        index = new PostSearchIndex(postRepo, properties, new PostShards(properties, null, null));
+        when(postRepo.findMinId()).thenReturn(1);
+        when(postRepo.findMaxId()).thenReturn(5);
+        when(postRepo.findByIdBetween(1, 2)).thenReturn(List.of(post(1, "One", "x"), post(2, "Two", "x")));
+        when(postRepo.findByIdBetween(3, 4)).thenReturn(List.of(post(4, "Four", "x")));
+        when(postRepo.findByIdBetween(5, 5)).thenReturn(List.of(post(5, "Five", "x")));
+
+        index.rebuild();
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(4), index.search("four", 10));
+    }
+
+    @Test
+    void rebuild_WritesDuringRebuildWinOverRowsReadBeforeThem() {
+        index.add(post(1, "Charmander", "Fire"));
+        index.add(post(2, "Squirtle", "Water"));
+        when(postRepo.findMinId()).thenReturn(1);
+        when(postRepo.findMaxId()).thenReturn(2);
+        when(postRepo.findByIdBetween(1, 2)).thenAnswer(invocation -> {
+            List<Post> read = List.of(post(1, "Charmander", "Fire"), post(2, "Squirtle", "Water"));
+            // Committed after the rows above were read.
+            index.add(post(1, "Charmeleon", "Flame"));
+            index.remove(2);
+            return read;
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(), index.search("fire", 10));
+        assertEquals(List.of(1), index.search("flame", 10));
+        assertEquals(List.of(), index.search("water", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench", matches = "true")
+    void benchmark_QueryLatencyAtOneMillionPosts() {
+        String[] vocabulary = new String[50_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "term" + i;
+        }
+        Random random = new Random(42);
+        List<Post> batch = new ArrayList<>();
+        for (int id = 1; id <= 1_000_000; id++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                content.append(vocabulary[zipf(random, vocabulary.length)]).append(' ');
+            }
+            batch.add(post(id, vocabulary[zipf(random, vocabulary.length)], content.toString()));
+            if (batch.size() == 10_000) {
+                index.addAll(batch);
+                batch.clear();
+            }
+        }
+
+        int queries = 10_000;
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            String query = vocabulary[zipf(random, vocabulary.length)] + " " + vocabulary[zipf(random, vocabulary.length)];
+            long start = System.nanoTime();
+            index.search(query, 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("search over %d posts: p50 %d us, p99 %d us, p99.9 %d us%n", index.size(),
+                latencies[queries / 2] / 1000, latencies[queries * 99 / 100] / 1000, latencies[queries * 999 / 1000] / 1000);
+    }
+
+    private static int zipf(Random random, int size) {
+        return (int) Math.min(size - 1, Math.floor(Math.pow(size, random.nextDouble())) - 1);
+    }
+
+    private static Post post(int id, String title, String content) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContent(content);
+        return post;
+    }
+}
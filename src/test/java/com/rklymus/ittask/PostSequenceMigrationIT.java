@@ -0,0 +1,45 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Own database, so that no post has been created through the sequence before the schema is rolled back to its
+ * IDENTITY-era shape.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:post-sequence-migration-it")
+public class PostSequenceMigrationIT {
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void migration_StartsSequenceAboveExistingIds() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("drop sequence " + Post.SEQUENCE);
+        jdbcTemplate.update("insert into post (id, title, version) values (1000, 'Legacy', 0)");
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/post_seq.sql")).execute(dataSource);
+
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        Post created = service.create(request);
+        List<Integer> batch = service.createAll(List.of(request, request)).getIds();
+
+        assertTrue(created.getId() > 1000, "id " + created.getId());
+        batch.forEach(id -> assertTrue(id > 1000, "id " + id));
+    }
+}
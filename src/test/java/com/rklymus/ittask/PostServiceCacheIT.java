@@ -0,0 +1,142 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "post.id-filter.enabled=false")
+@AutoConfigureMockMvc
+public class PostServiceCacheIT {
+
+    @MockBean
+    private PostRepo postRepo;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PostContentConverter contentConverter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final Post post = new Post();
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCache(PostService.CACHE).clear();
+        post.setId(1);
+        post.setTitle("Title");
+        post.setContent("Content");
+        post.setTimestamp(LocalDateTime.of(2023, 5, 14, 0, 0));
+    }
+
+    @Test
+    void get_SecondCallServedFromCache() {
+        when(postRepo.findById(1)).thenReturn(Optional.of(post));
+
+        service.get(1);
+        service.get(1);
+
+        verify(postRepo, times(1)).findById(1);
+    }
+
+    @Test
+    void get_NotFoundIsNotCached() {
+        when(postRepo.findById(1)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.get(1);
+            } catch (EntityNotFoundException ignored) {
+            }
+        }
+
+        verify(postRepo, times(2)).findById(1);
+    }
+
+    @Test
+    void get_ConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(postRepo.findById(1)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(post);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> service.get(1));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<?> future : futures) {
+                assertSame(post, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(postRepo, times(1)).findById(1);
+    }
+
+    @Test
+    void update_EvictsCachedPost() {
+        when(postRepo.findById(1)).thenReturn(Optional.of(post));
+        when(postRepo.updateFields(eq(1), eq("TitleNew"), aryEq(contentConverter.convertToDatabaseColumn("ContentNew")), isNull(), any())).thenReturn(1);
+        PostRequest request = new PostRequest();
+        request.setTitle("TitleNew");
+        request.setContent("ContentNew");
+
+        service.get(1);
+        service.update(1, request, null);
+        service.get(1);
+
+        verify(postRepo, times(3)).findById(1);
+    }
+
+    @Test
+    void delete_EvictsCachedPost() {
+        when(postRepo.findById(1)).thenReturn(Optional.of(post));
+        when(postRepo.removeById(1)).thenReturn(1);
+
+        service.get(1);
+        service.delete(1);
+        service.get(1);
+
+        verify(postRepo, times(2)).findById(1);
+    }
+
+    @Test
+    void cacheMetrics_Exposed() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:" + PostService.CACHE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[*].tag", hasItem("result")));
+    }
+}
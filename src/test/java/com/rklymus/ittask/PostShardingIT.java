@@ -0,0 +1,192 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "post.sharding.shards[0].url=jdbc:h2:mem:shard-it-0",
+        "post.sharding.shards[1].url=jdbc:h2:mem:shard-it-1",
+        "post.sharding.shards[2].url=jdbc:h2:mem:shard-it-2"
+})
+@AutoConfigureMockMvc
+public class PostShardingIT {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostShards shards;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void create_LandsOnTheShardItsIdMapsTo() {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < SHARDS * 2; i++) {
+            posts.add(service.create(request("Title " + i)));
+        }
+
+        Set<Integer> used = new HashSet<>();
+        for (Post post : posts) {
+            int shard = shards.shardOf(post.getId());
+            used.add(shard);
+            assertEquals(1, rows(shard, post.getId()));
+            for (int other = 0; other < SHARDS; other++) {
+                if (other != shard) {
+                    assertEquals(0, rows(other, post.getId()));
+                }
+            }
+        }
+        assertEquals(SHARDS, used.size());
+    }
+
+    @Test
+    void createAll_UniqueIdsAcrossShards() {
+        List<PostRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            requests.add(request("Batch " + i));
+        }
+
+        PostBatchResponse response = service.createAll(requests);
+
+        assertTrue(response.getErrors().isEmpty());
+        assertEquals(requests.size(), new HashSet<>(response.getIds()).size());
+        for (Integer id : response.getIds()) {
+            assertEquals(1, rows(shards.shardOf(id), id));
+        }
+    }
+
+    @Test
+    void singleIdCrud_RoutesToOwningShard() throws Exception {
+        Post post = service.create(request("Crud"));
+
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Crud")));
+        service.update(post.getId(), request("Updated"), null);
+        mockMvc.perform(get("/post/" + post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Updated")));
+        mockMvc.perform(delete("/post/" + post.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(0, rows(shards.shardOf(post.getId()), post.getId()));
+    }
+
+    @Test
+    void list_MergesShardsInTimestampOrder() throws Exception {
+        for (int i = 0; i < SHARDS * 3; i++) {
+            service.create(request("Page " + i));
+        }
+
+        List<JsonNode> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult result = mockMvc.perform(cursor == null
+                            ? get("/post").param("size", "4")
+                            : get("/post").param("size", "4").param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("items").forEach(listed::add);
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (cursor != null);
+
+        assertEquals(total(), listed.size());
+        assertOrdered(listed);
+    }
+
+    @Test
+    void export_MergesShardsInTimestampOrder() throws Exception {
+        for (int i = 0; i < SHARDS * 3; i++) {
+            service.create(request("Export " + i));
+        }
+
+        MvcResult result = mockMvc.perform(get("/post/export")).andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readTree(line));
+        }
+        assertEquals(total(), exported.size());
+        assertOrdered(exported);
+    }
+
+    @Test
+    void search_ResolvesHitsFromEveryShard() throws Exception {
+        for (int i = 0; i < SHARDS; i++) {
+            service.create(request("Zubat " + i));
+        }
+
+        mockMvc.perform(get("/post/search").param("q", "zubat"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(SHARDS)));
+    }
+
+    private void assertOrdered(List<JsonNode> posts) {
+        Comparator<JsonNode> order = Comparator
+                .comparing((JsonNode post) -> LocalDateTime.parse(post.get("timestamp").asText()))
+                .thenComparingInt(post -> post.get("id").asInt());
+        for (int i = 1; i < posts.size(); i++) {
+            assertFalse(order.compare(posts.get(i - 1), posts.get(i)) > 0, "out of order at " + i);
+        }
+    }
+
+    private int rows(int shard, Integer id) {
+        Integer count = new JdbcTemplate(routingDataSource.shard(shard))
+                .queryForObject("select count(*) from post where id = ?", Integer.class, id);
+        return count != null ? count : 0;
+    }
+
+    private int total() {
+        int total = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            Integer count = new JdbcTemplate(routingDataSource.shard(shard))
+                    .queryForObject("select count(*) from post", Integer.class);
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    private static PostRequest request(String title) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent("Content");
+        return request;
+    }
+}
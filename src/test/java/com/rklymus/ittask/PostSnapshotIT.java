@@ -0,0 +1,182 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "post.snapshot.enabled=true",
+        "post.snapshot.path=target/post-snapshot-it.bin",
+        "post.id-filter.enabled=false"
+})
+@AutoConfigureMockMvc
+public class PostSnapshotIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private PostSnapshot snapshot;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PostProperties properties;
+
+    private Post kept;
+    private Post changed;
+    private Post deleted;
+
+    @BeforeEach
+    void init() throws Exception {
+        Files.deleteIfExists(Path.of("target/post-snapshot-it.bin"));
+        cacheManager.getCache(PostService.CACHE).clear();
+        postRepo.deleteAllInBatch();
+        kept = service.get(service.create(request("Pikachu", "Viridian Forest")).getId());
+        changed = service.get(service.create(request("Squirtle", "Cerulean City")).getId());
+        deleted = service.get(service.create(request("Charmander", "Route 24")).getId());
+
+        assertEquals(3, snapshot.write());
+        cacheManager.getCache(PostService.CACHE).clear();
+    }
+
+    @Test
+    void restart_ServesSnapshotThenVerifies() throws Exception {
+        postRepo.updateFields(changed.getId(), "Wartortle", null, null, changed.getModified());
+        postRepo.removeById(deleted.getId());
+
+        assertTrue(snapshot.load());
+        mockMvc.perform(get("/post/" + changed.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Squirtle")));
+        mockMvc.perform(get("/post/" + deleted.getId()))
+                .andExpect(status().isOk());
+
+        snapshot.verify();
+
+        assertFalse(snapshot.isLoaded());
+        Post cached = cacheManager.getCache(PostService.CACHE).get(kept.getId(), Post.class);
+        assertNotNull(cached);
+        assertEquals(kept.getTimestamp(), cached.getTimestamp());
+        assertEquals(kept.getVersion(), cached.getVersion());
+        assertNull(cacheManager.getCache(PostService.CACHE).get(changed.getId()));
+        mockMvc.perform(get("/post/" + kept.getId()))
+                .andExpect(jsonPath("$.title", is("Pikachu")))
+                .andExpect(jsonPath("$.content", is("Viridian Forest")));
+        mockMvc.perform(get("/post/" + changed.getId()))
+                .andExpect(jsonPath("$.title", is("Wartortle")));
+        mockMvc.perform(get("/post/" + deleted.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void snapshotEntry_NotCachedUntilVerified() {
+        postRepo.updateFields(changed.getId(), "Wartortle", null, null, changed.getModified());
+        assertTrue(snapshot.load());
+
+        assertEquals("Squirtle", service.get(changed.getId()).getTitle());
+        assertNull(cacheManager.getCache(PostService.CACHE).get(changed.getId()));
+
+        snapshot.verify();
+
+        assertEquals("Wartortle", service.get(changed.getId()).getTitle());
+    }
+
+    @Test
+    void localWrite_InvalidatesSnapshotEntry() throws Exception {
+        assertTrue(snapshot.load());
+
+        mockMvc.perform(put("/post/" + changed.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Wartortle\",\"content\":\"Cerulean Gym\"}"))
+                .andExpect(status().isOk());
+
+        assertNull(snapshot.get(changed.getId()));
+        assertNotNull(snapshot.get(kept.getId()));
+        mockMvc.perform(get("/post/" + changed.getId()))
+                .andExpect(jsonPath("$.title", is("Wartortle")));
+        snapshot.verify();
+    }
+
+    @Test
+    void corruptSnapshot_IgnoredAndServedFromDatabase() throws Exception {
+        Path path = Path.of("target/post-snapshot-it.bin");
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        assertFalse(snapshot.load());
+        mockMvc.perform(get("/post/" + kept.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Viridian Forest")));
+    }
+
+    @Test
+    void truncatedSnapshot_Ignored() throws Exception {
+        Path path = Path.of("target/post-snapshot-it.bin");
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+        assertFalse(snapshot.load());
+
+        Files.write(path, Arrays.copyOf(bytes, 14));
+        assertFalse(snapshot.load());
+    }
+
+    @Test
+    void write_Fails_RemovesTemporaryFile() throws Exception {
+        Path directory = Path.of("target/post-snapshot-it-dir");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("occupied"), "");
+        Path original = properties.getSnapshot().getPath();
+        properties.getSnapshot().setPath(directory);
+        try {
+            service.get(kept.getId());
+            assertThrows(UncheckedIOException.class, () -> snapshot.write());
+        } finally {
+            properties.getSnapshot().setPath(original);
+        }
+
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            assertEquals(List.of(), files.filter(file -> file.getFileName().toString()
+                    .startsWith("post-snapshot-it-dir") && file.toString().endsWith(".tmp")).toList());
+        }
+    }
+
+    private static PostRequest request(String title, String content) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        return request;
+    }
+}
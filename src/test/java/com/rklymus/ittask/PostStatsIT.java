@@ -0,0 +1,126 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostStatsIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostStats stats;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @BeforeEach
+    void init() {
+        stats.reconcile();
+    }
+
+    @Test
+    void stats_FollowCreateAndDelete() {
+        PostStatsResponse before = stats.snapshot();
+
+        Post first = service.create(request("First"));
+        service.createAll(List.of(request("Second"), request("Third")));
+        service.delete(first.getId());
+
+        PostStatsResponse after = stats.snapshot();
+        assertEquals(before.getTotal() + 2, after.getTotal());
+        LocalDateTime hour = first.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+        assertEquals(count(before.getHourly(), hour) + 2, count(after.getHourly(), hour));
+        LocalDateTime day = first.getTimestamp().truncatedTo(ChronoUnit.DAYS);
+        assertEquals(count(before.getDaily(), day) + 2, count(after.getDaily(), day));
+    }
+
+    @Test
+    void reconcile_CorrectsDrift() {
+        Post post = new Post();
+        post.setTitle("Written elsewhere");
+        post.setContent("Content");
+        postRepo.save(post);
+        assertEquals(postRepo.count() - 1, stats.snapshot().getTotal());
+
+        stats.reconcile();
+
+        PostStatsResponse reconciled = stats.snapshot();
+        assertEquals(postRepo.count(), reconciled.getTotal());
+        assertEquals(reconciled.getTotal(),
+                reconciled.getHourly().stream().mapToLong(PostStatsResponse.Bucket::getCount).sum());
+        assertEquals(reconciled.getTotal(),
+                reconciled.getDaily().stream().mapToLong(PostStatsResponse.Bucket::getCount).sum());
+    }
+
+    @Test
+    void reconcile_WriteCommittedBeforeScanRecordedDuring_CountedOnce() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        Thread writer = new Thread(() -> stats.write(0, () -> {
+            Post post = new Post();
+            post.setTitle("Committed before the scan");
+            post.setContent("Content");
+            postRepo.save(post);
+            committed.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            stats.add(0, post.getTimestamp());
+            return null;
+        }));
+        writer.start();
+        committed.await();
+
+        stats.reconcile();
+        writer.join();
+
+        assertEquals(postRepo.count(), stats.snapshot().getTotal());
+    }
+
+    @Test
+    void get_Stats() throws Exception {
+        service.create(request("Title"));
+
+        mockMvc.perform(get("/post/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is((int) postRepo.count())))
+                .andExpect(jsonPath("$.hourly[0].start", notNullValue()))
+                .andExpect(jsonPath("$.daily[0].count", notNullValue()))
+                .andExpect(jsonPath("$.reconciledAt", notNullValue()));
+    }
+
+    private static long count(List<PostStatsResponse.Bucket> buckets, LocalDateTime start) {
+        return buckets.stream().filter(bucket -> bucket.getStart().equals(start))
+                .mapToLong(PostStatsResponse.Bucket::getCount).findFirst().orElse(0);
+    }
+
+    private static PostRequest request(String title) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent("Content");
+        return request;
+    }
+}
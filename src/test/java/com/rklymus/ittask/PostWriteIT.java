@@ -0,0 +1,134 @@
+package com.rklymus.ittask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PostWriteIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService service;
+
+    @Autowired
+    private PostRepo postRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Statistics statistics;
+
+    private Post post;
+
+    @BeforeEach
+    void init() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        post = service.create(request);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void update_UpdateAndReadBackOnly() throws Exception {
+        mockMvc.perform(put("/post/" + post.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", "TitleNew", "content", "ContentNew"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("TitleNew")))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void delete_Cached_SingleStatement() throws Exception {
+        service.get(post.getId());
+        statistics.clear();
+
+        mockMvc.perform(delete("/post/" + post.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(postRepo.existsById(post.getId()));
+    }
+
+    @Test
+    void delete_Uncached_ReadsTimestampAndDeletes() throws Exception {
+        mockMvc.perform(delete("/post/" + post.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertFalse(postRepo.existsById(post.getId()));
+    }
+
+    @Test
+    void delete_Missing_404SingleStatement() throws Exception {
+        postRepo.deleteById(post.getId());
+        statistics.clear();
+
+        mockMvc.perform(delete("/post/" + post.getId()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Entity with id=" + post.getId() + " not found")));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patch_OnlySuppliedFieldsChange() throws Exception {
+        mockMvc.perform(patch("/post/" + post.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("content", "ContentNew"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-1\""))
+                .andExpect(jsonPath("$.title", is("Title")))
+                .andExpect(jsonPath("$.content", is("ContentNew")));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patch_IfMatchStale_412Status() throws Exception {
+        service.patch(post.getId(), new PostPatchRequest(), null);
+
+        mockMvc.perform(patch("/post/" + post.getId())
+                        .header(HttpHeaders.IF_MATCH, post.etag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", "TitleNew"))))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("Title", postRepo.findById(post.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void patch_Missing_404Status() throws Exception {
+        mockMvc.perform(patch("/post/" + Integer.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", "TitleNew"))))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,56 @@
+package com.rklymus.ittask;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    void disabledByDefault() {
+        runner.run(context -> assertThat(context).doesNotHaveBean("virtualThreadExecutor"));
+    }
+
+    @Test
+    void enabledWithoutExecutor_FailsFast() {
+        runner.withPropertyValues("post.threads.virtual=on").run(context -> assertThat(context)
+                .getFailure()
+                .hasStackTraceContaining("virtual threads were not set up"));
+    }
+
+    @Test
+    void beforeJava21_FailsFast() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        runner.withPropertyValues("post.threads.virtual=true").run(context -> assertThat(context)
+                .getFailure()
+                .hasStackTraceContaining("needs Java 21"));
+    }
+
+    @Test
+    void onJava21_RunsTasksOnVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21);
+
+        runner.withPropertyValues("post.threads.virtual=true").run(context -> {
+            AsyncTaskExecutor executor = context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                    AsyncTaskExecutor.class);
+            Object virtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                    .get(5, TimeUnit.SECONDS);
+            assertEquals(Boolean.TRUE, virtual);
+            assertThat(context.getBean(ExecutorService.class).isShutdown()).isFalse();
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.rklymus.ittask;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Only runs on Java 21 or later, see the java21 Maven profile.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "post.threads.virtual=true")
+@EnabledIfSystemProperty(named = "java.specification.version", matches = "2[1-9]|[3-9]\\d")
+public class VirtualThreadIT {
+
+    private static final AtomicReference<Thread> requestThread = new AtomicReference<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private PostService service;
+
+    @Test
+    void get_HandledOnVirtualThread() throws Exception {
+        PostRequest request = new PostRequest();
+        request.setTitle("Title");
+        request.setContent("Content");
+        Post post = service.create(request);
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/post/" + post.getId())).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertSame(context.getBean(VirtualThreadConfig.EXECUTOR),
+                ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector().getProtocolHandler()
+                        .getExecutor());
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(requestThread.get()));
+    }
+
+    @TestConfiguration
+    static class RequestThreadCapture {
+
+        @Bean
+        Filter requestThreadFilter() {
+            return (request, response, chain) -> {
+                requestThread.set(Thread.currentThread());
+                chain.doFilter(request, response);
+            };
+        }
+    }
+}